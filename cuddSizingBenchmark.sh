@@ -0,0 +1,52 @@
+#!/bin/bash
+
+# Compares CUDD's default table sizes and memory limits with the
+# auto-tuned ones (see --cudd-auto-tuning and --cudd-* options)
+# by analyzing the original version of each bundled SPL.
+
+JAR="reana.jar"
+xms=1024m
+xmx=15360m
+iterations=${1:-3}
+spls="BSN Email IC Lift MP TW"
+
+COMMAND="java -Xms$xms -Xmx$xmx -jar $JAR"
+ANALYSES_PATH=Analyses/cudd-sizing
+LOGS_DIR=$ANALYSES_PATH/logs
+RESULTS_FILE=$LOGS_DIR/cuddSizing.out
+
+# cleanup previous run
+rm -rf $ANALYSES_PATH
+mkdir -p $LOGS_DIR
+
+for spl in $spls; do
+	for sizing in default auto; do
+		if [ "$sizing" = "default" ]; then
+			SIZING_OPTIONS=""
+		else
+			SIZING_OPTIONS="--cudd-auto-tuning"
+		fi
+		for i in $(seq 1 $iterations); do
+			echo ----------   $spl   $sizing   Iteration $i   ----------
+			rm -rf $ANALYSES_PATH/ADDS
+			eval "$COMMAND --stats --suppress-report $SIZING_OPTIONS \
+      --persisted-analyses=$ANALYSES_PATH/ADDS \
+      --uml-model=$spl/bm${spl}0.xml \
+      --feature-model=$spl/fm${spl}0.txt > $LOGS_DIR/$spl-$sizing-$i.out"
+		done
+	done
+done
+
+# Summary: analysis time (ms) and peak CUDD memory (MB) of each run
+for spl in $spls; do
+	for sizing in default auto; do
+		echo ---------- $spl $sizing ---------- >> $RESULTS_FILE
+		for i in $(seq 1 $iterations); do
+			time=$(grep "Total analysis" $LOGS_DIR/$spl-$sizing-$i.out | awk '{print $4}')
+			memory=$(grep "Peak CUDD memory" $LOGS_DIR/$spl-$sizing-$i.out | awk '{print $4}')
+			echo "$time $memory" >> $RESULTS_FILE
+		done
+	done
+done
+
+cat $RESULTS_FILE
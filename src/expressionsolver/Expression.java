@@ -1,6 +1,8 @@
 package expressionsolver;
 
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import org.nfunk.jep.JEP;
@@ -46,4 +48,15 @@ public class Expression<T> {
         Object result = parser.getValueAsObject();
         return type.cast(result);
     }
+
+    /**
+     * @return the names of the variables occurring in this expression.
+     */
+    public Set<String> getVariables() {
+        Set<String> variables = new HashSet<String>();
+        for (Object var: parser.getSymbolTable().keySet()) {
+            variables.add((String)var);
+        }
+        return variables;
+    }
 }
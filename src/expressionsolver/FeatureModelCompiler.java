@@ -0,0 +1,372 @@
+package expressionsolver;
+
+import jadd.ADD;
+import jadd.JADD;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Encodes a feature model in conjunctive normal form (i.e., clauses joined
+ * by {@code &&}, each of which a disjunction of possibly negated features)
+ * as a 0,1-ADD, without going through the expression parser.
+ *
+ * All variables are declared (in order of appearance) before any clause is
+ * encoded, and clauses are then conjoined according to a
+ * {@link ConjunctionStrategy}, releasing intermediate conjunctions as soon
+ * as they are no longer needed. Top-level conjuncts which are not plain
+ * clauses are encoded by an {@link ExpressionSolver} instead.
+ */
+public class FeatureModelCompiler {
+    private static final Logger LOGGER = Logger.getLogger(FeatureModelCompiler.class.getName());
+
+    private static final Pattern LITERAL = Pattern.compile("\\s*(!?)\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*");
+
+    /**
+     * Order in which clause ADDs are conjoined. Intermediate ADDs may be
+     * much larger than the final one, depending on this order.
+     */
+    public enum ConjunctionStrategy {
+        /**
+         * Left fold in the order of the clauses (as the expression parser does).
+         */
+        LINEAR,
+        /**
+         * Balanced binary tree over the clauses, in their order.
+         */
+        BALANCED,
+        /**
+         * Always conjoins the two smallest ADDs at hand.
+         */
+        SMALLEST_FIRST,
+        /**
+         * Groups clauses by their topmost variable in the current variable
+         * order, conjoins each group smallest-first and then folds the groups
+         * from the bottom of the order up.
+         */
+        CLUSTERED
+    }
+
+    public static final ConjunctionStrategy DEFAULT_STRATEGY = ConjunctionStrategy.BALANCED;
+
+    private JADD jadd;
+    private ExpressionSolver expressionSolver;
+    private ConjunctionStrategy strategy;
+
+    public FeatureModelCompiler(JADD jadd) {
+        this(jadd, DEFAULT_STRATEGY);
+    }
+
+    public FeatureModelCompiler(JADD jadd, ConjunctionStrategy strategy) {
+        this.jadd = jadd;
+        this.expressionSolver = new ExpressionSolver(jadd);
+        this.strategy = strategy;
+    }
+
+    /**
+     * @param featureModel CNF view of the feature model, expressed using
+     *          Java logical operators.
+     * @return the 0,1-ADD of the feature model, or null if some conjunct
+     *          could not be parsed.
+     */
+    public ADD compile(String featureModel) {
+        List<String> conjuncts = splitConjuncts(featureModel);
+        List<List<String>> clauses = new ArrayList<List<String>>();
+        Set<String> variables = new LinkedHashSet<String>();
+        for (String conjunct : conjuncts) {
+            List<String> literals = parseClause(conjunct);
+            clauses.add(literals);
+            if (literals != null) {
+                for (String literal : literals) {
+                    variables.add(toVariable(literal));
+                }
+            }
+        }
+        for (String variable : variables) {
+            jadd.getVariable(variable);
+        }
+
+        List<ADD> clauseADDs = new ArrayList<ADD>();
+        for (int i = 0; i < conjuncts.size(); i++) {
+            List<String> literals = clauses.get(i);
+            ADD clause = (literals != null) ? encodeClause(literals) : encodeFormula(conjuncts.get(i));
+            if (clause == null) {
+                releaseAll(clauseADDs);
+                return null;
+            }
+            clauseADDs.add(clause);
+        }
+        if (clauseADDs.isEmpty()) {
+            return jadd.makeConstant(1);
+        }
+        LOGGER.fine("Conjoining " + clauseADDs.size() + " clauses over " + variables.size() + " variables (" + strategy + ")");
+        return conjoin(clauseADDs);
+    }
+
+    /**
+     * Conjoins clauses to a previously compiled feature model, e.g., those
+     * added by a new version of it (see {@link #getClauses(String)}).
+     *
+     * @param featureModel 0,1-ADD of the feature model (not released).
+     * @param clauses Clauses to be conjoined.
+     * @return the 0,1-ADD of the extended feature model, or null if some
+     *          clause could not be parsed.
+     */
+    public ADD extend(ADD featureModel, Collection<String> clauses) {
+        if (clauses.isEmpty()) {
+            return featureModel.copy();
+        }
+        ADD added = compile(String.join(" && ", clauses));
+        if (added == null) {
+            return null;
+        }
+        ADD extended = featureModel.and(added);
+        added.release();
+        return extended;
+    }
+
+    /**
+     * @param featureModel CNF view of the feature model, expressed using
+     *          Java logical operators.
+     * @return the top-level conjuncts of the feature model, in a canonical
+     *          form (i.e., with the literals of clauses sorted), so that
+     *          those of different versions can be compared. Conjoining them
+     *          yields the feature model itself.
+     */
+    public static Set<String> getClauses(String featureModel) {
+        Set<String> clauses = new LinkedHashSet<String>();
+        for (String conjunct : splitConjuncts(featureModel)) {
+            List<String> literals = parseClause(conjunct);
+            if (literals != null) {
+                clauses.add(String.join(" || ", new TreeSet<String>(literals)));
+            } else {
+                clauses.add(conjunct);
+            }
+        }
+        return clauses;
+    }
+
+    /**
+     * Conjoins the given ADDs according to the conjunction strategy. All of
+     * them are owned (and eventually released) by the compiler.
+     */
+    private ADD conjoin(List<ADD> adds) {
+        switch (strategy) {
+        case BALANCED:
+            return conjoinBalanced(adds);
+        case SMALLEST_FIRST:
+            return conjoinSmallestFirst(adds);
+        case CLUSTERED:
+            return conjoinClustered(adds);
+        case LINEAR:
+        default:
+            return conjoinLinear(adds);
+        }
+    }
+
+    private ADD conjoinLinear(List<ADD> adds) {
+        ADD result = adds.get(0);
+        for (int i = 1; i < adds.size(); i++) {
+            result = and(result, adds.get(i));
+        }
+        return result;
+    }
+
+    private ADD conjoinBalanced(List<ADD> adds) {
+        List<ADD> level = adds;
+        while (level.size() > 1) {
+            List<ADD> next = new ArrayList<ADD>((level.size() + 1) / 2);
+            for (int i = 0; i + 1 < level.size(); i += 2) {
+                next.add(and(level.get(i), level.get(i + 1)));
+            }
+            if (level.size() % 2 == 1) {
+                next.add(level.get(level.size() - 1));
+            }
+            level = next;
+        }
+        return level.get(0);
+    }
+
+    private ADD conjoinSmallestFirst(List<ADD> adds) {
+        // Sizes are cached, since computing them requires traversing the ADDs.
+        // ADD equality is up to floating-point tolerance, hence the identity map.
+        Map<ADD, Integer> sizes = new IdentityHashMap<ADD, Integer>();
+        PriorityQueue<ADD> queue = new PriorityQueue<ADD>(Comparator.comparingInt((ADD add) -> sizes.get(add)));
+        for (ADD add : adds) {
+            sizes.put(add, add.getNodeCount());
+            queue.add(add);
+        }
+        while (queue.size() > 1) {
+            ADD first = queue.poll();
+            ADD second = queue.poll();
+            sizes.remove(first);
+            sizes.remove(second);
+            ADD conjunction = and(first, second);
+            sizes.put(conjunction, conjunction.getNodeCount());
+            queue.add(conjunction);
+        }
+        return queue.poll();
+    }
+
+    private ADD conjoinClustered(List<ADD> adds) {
+        Map<String, Integer> levels = new HashMap<String, Integer>();
+        List<String> variableOrder = jadd.getVariableOrder();
+        for (int level = 0; level < variableOrder.size(); level++) {
+            levels.put(variableOrder.get(level), level);
+        }
+        // Clusters by topmost variable, the deepest cluster first.
+        TreeMap<Integer, List<ADD>> clusters = new TreeMap<Integer, List<ADD>>(Comparator.reverseOrder());
+        for (ADD add : adds) {
+            int top = add.getVariables().stream()
+                    .mapToInt(variable -> levels.getOrDefault(variable, Integer.MAX_VALUE))
+                    .min()
+                    .orElse(Integer.MAX_VALUE);
+            clusters.computeIfAbsent(top, level -> new ArrayList<ADD>()).add(add);
+        }
+        ADD result = null;
+        for (List<ADD> cluster : clusters.values()) {
+            ADD conjunction = conjoinSmallestFirst(cluster);
+            result = (result == null) ? conjunction : and(result, conjunction);
+        }
+        return result;
+    }
+
+    /**
+     * Conjoins two owned ADDs, releasing them.
+     */
+    private static ADD and(ADD first, ADD second) {
+        ADD conjunction = first.and(second);
+        first.release();
+        second.release();
+        return conjunction;
+    }
+
+    /**
+     * Encodes an arbitrary formula by means of the expression solver.
+     */
+    private ADD encodeFormula(String formula) {
+        ADD encoded = expressionSolver.encodeFormula(formula);
+        // The solver may return an ADD it does not own (e.g., a variable
+        // for "(A)"), so the compiler only ever releases a copy.
+        return (encoded != null) ? encoded.copy() : null;
+    }
+
+    private ADD encodeClause(List<String> literals) {
+        ADD clause = null;
+        for (String literal : literals) {
+            ADD variable = jadd.getVariable(toVariable(literal));
+            // Variables belong to the manager, so the clause gets a copy.
+            ADD encoded = literal.startsWith("!") ? variable.complement() : variable.copy();
+            if (clause == null) {
+                clause = encoded;
+            } else {
+                ADD disjunction = clause.or(encoded);
+                clause.release();
+                encoded.release();
+                clause = disjunction;
+            }
+        }
+        return clause;
+    }
+
+    private static void releaseAll(List<ADD> adds) {
+        for (ADD add : adds) {
+            add.release();
+        }
+    }
+
+    /**
+     * Splits a formula at its top-level {@code &&} operators. Since {@code &&}
+     * binds tighter than {@code ||}, a formula with a top-level {@code ||} is
+     * not a conjunction, so it is returned as a whole.
+     */
+    private static List<String> splitConjuncts(String formula) {
+        List<String> conjuncts = new ArrayList<String>();
+        if (hasTopLevelDisjunction(formula)) {
+            addConjunct(conjuncts, formula);
+            return conjuncts;
+        }
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < formula.length(); i++) {
+            char c = formula.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && formula.startsWith("&&", i)) {
+                addConjunct(conjuncts, formula.substring(start, i));
+                start = i + 2;
+                i++;
+            }
+        }
+        addConjunct(conjuncts, formula.substring(start));
+        return conjuncts;
+    }
+
+    private static boolean hasTopLevelDisjunction(String formula) {
+        int depth = 0;
+        for (int i = 0; i < formula.length(); i++) {
+            char c = formula.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && formula.startsWith("||", i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addConjunct(List<String> conjuncts, String conjunct) {
+        if (!conjunct.trim().isEmpty()) {
+            conjuncts.add(conjunct.trim());
+        }
+    }
+
+    /**
+     * @return the literals of a clause (e.g., "!A"), or null if
+     *      {@code conjunct} is not a disjunction of literals.
+     */
+    private static List<String> parseClause(String conjunct) {
+        String clause = conjunct;
+        if (clause.startsWith("(") && clause.endsWith(")")) {
+            clause = clause.substring(1, clause.length() - 1);
+        }
+        if (clause.contains("(") || clause.contains(")") || clause.contains("&")) {
+            return null;
+        }
+        List<String> literals = new ArrayList<String>();
+        for (String literal : clause.split("\\|\\|")) {
+            Matcher matcher = LITERAL.matcher(literal);
+            if (!matcher.matches() || isConstant(matcher.group(2))) {
+                return null;
+            }
+            literals.add(matcher.group(1) + matcher.group(2));
+        }
+        return literals;
+    }
+
+    private static boolean isConstant(String name) {
+        return name.equalsIgnoreCase("true") || name.equalsIgnoreCase("false");
+    }
+
+    private static String toVariable(String literal) {
+        return literal.startsWith("!") ? literal.substring(1) : literal;
+    }
+
+}
@@ -0,0 +1,253 @@
+package expressionsolver;
+
+import jadd.ADD;
+import jadd.JADD;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import splar.core.constraints.CNFClause;
+import splar.core.constraints.CNFLiteral;
+import splar.core.constraints.PropositionalFormula;
+import splar.core.fm.FeatureGroup;
+import splar.core.fm.FeatureModel;
+import splar.core.fm.FeatureTreeNode;
+import splar.core.fm.SolitaireFeature;
+
+/**
+ * Encodes a SPLAR feature model (e.g., loaded from an SXFM file) as a
+ * 0,1-ADD by structural recursion over its feature tree, rather than
+ * by conjoining its CNF clauses.
+ *
+ * Features are declared in depth-first order, so that parents, children
+ * and siblings lie close to one another in the initial variable order.
+ * Each subtree is then encoded bottom-up: the ADD of a feature's subtree
+ * is the conjunction of its children's subtrees with the relations
+ * between the feature and its children (mandatory, optional and group
+ * cardinalities). Cross-tree constraints are conjoined last.
+ *
+ * As in {@link splar.core.fm.FeatureModel#FM2JavaCNF()}, variables are
+ * named after the features' IDs.
+ */
+public class FeatureTreeCompiler {
+    private static final Logger LOGGER = Logger.getLogger(FeatureTreeCompiler.class.getName());
+
+    private JADD jadd;
+
+    public FeatureTreeCompiler(JADD jadd) {
+        this.jadd = jadd;
+    }
+
+    /**
+     * @param featureModel A loaded SPLAR feature model.
+     * @return the 0,1-ADD of the valid configurations of the feature model.
+     */
+    public ADD compile(FeatureModel featureModel) {
+        FeatureTreeNode root = featureModel.getRoot();
+        List<String> variableOrder = new ArrayList<String>();
+        collectFeatures(root, variableOrder);
+        for (String variable : variableOrder) {
+            jadd.getVariable(variable);
+        }
+
+        ADD tree = and(jadd.getVariable(root.getID()).copy(), encodeSubtree(root));
+        int constraints = 0;
+        for (PropositionalFormula constraint : featureModel.getConstraints()) {
+            for (CNFClause clause : constraint.toCNFClauses()) {
+                tree = and(tree, encodeClause(clause));
+                constraints++;
+            }
+        }
+        LOGGER.fine("Encoded feature tree with " + variableOrder.size() + " features and " + constraints + " cross-tree clauses");
+        return tree;
+    }
+
+    /**
+     * @return a digest of the feature tree, i.e., of its features, their
+     *      kinds (mandatory, optional, grouped) and group cardinalities.
+     *      Cross-tree constraints are left out.
+     */
+    public static String getTreeDigest(FeatureModel featureModel) {
+        StringBuilder description = new StringBuilder();
+        describe(featureModel.getRoot(), description);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(description.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Cannot happen: every JVM supports SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void describe(FeatureTreeNode node, StringBuilder description) {
+        description.append(node.getClass().getSimpleName()).append(' ').append(node.getID());
+        if (node instanceof FeatureGroup) {
+            FeatureGroup group = (FeatureGroup) node;
+            description.append(" [").append(group.getMin()).append(',').append(group.getMax()).append(']');
+        } else if (node instanceof SolitaireFeature) {
+            description.append(((SolitaireFeature) node).isOptional() ? " optional" : " mandatory");
+        }
+        description.append(" (");
+        for (FeatureTreeNode child : getChildren(node)) {
+            describe(child, description);
+            description.append(';');
+        }
+        description.append(')');
+    }
+
+    /**
+     * Collects feature IDs in depth-first (pre-)order. Groups are not
+     * features, so only their members are collected.
+     */
+    private static void collectFeatures(FeatureTreeNode node, List<String> features) {
+        if (!(node instanceof FeatureGroup)) {
+            features.add(node.getID());
+        }
+        for (FeatureTreeNode child : getChildren(node)) {
+            collectFeatures(child, features);
+        }
+    }
+
+    /**
+     * @return the constraints on the features below {@code feature},
+     *      including their relations to it (but not the feature itself).
+     */
+    private ADD encodeSubtree(FeatureTreeNode feature) {
+        ADD subtree = jadd.makeConstant(1);
+        ADD parent = jadd.getVariable(feature.getID());
+        for (FeatureTreeNode child : getChildren(feature)) {
+            if (child instanceof FeatureGroup) {
+                FeatureGroup group = (FeatureGroup) child;
+                List<FeatureTreeNode> members = getChildren(group);
+                List<ADD> memberVariables = new ArrayList<ADD>();
+                for (FeatureTreeNode member : members) {
+                    ADD memberVariable = jadd.getVariable(member.getID());
+                    memberVariables.add(memberVariable);
+                    subtree = and(subtree, implies(memberVariable, parent));
+                    subtree = and(subtree, encodeSubtree(member));
+                }
+                subtree = and(subtree, impliesOwned(parent, cardinality(memberVariables, group.getMin(), group.getMax())));
+            } else {
+                ADD childVariable = jadd.getVariable(child.getID());
+                subtree = and(subtree, implies(childVariable, parent));
+                if (child instanceof SolitaireFeature && !((SolitaireFeature) child).isOptional()) {
+                    subtree = and(subtree, implies(parent, childVariable));
+                }
+                subtree = and(subtree, encodeSubtree(child));
+            }
+        }
+        return subtree;
+    }
+
+    /**
+     * Encodes "between {@code min} and {@code max} of {@code variables} hold".
+     * A negative maximum means no upper bound (i.e., "*").
+     */
+    private ADD cardinality(List<ADD> variables, int min, int max) {
+        int upperBound = (max < 0) ? variables.size() : Math.min(max, variables.size());
+        if (upperBound == variables.size()) {
+            if (min <= 0) {
+                return jadd.makeConstant(1);
+            } else if (min == 1) {
+                return disjunction(variables);
+            }
+        }
+        // exactly[j] holds iff exactly j of the variables seen so far hold.
+        List<ADD> exactly = new ArrayList<ADD>();
+        exactly.add(jadd.makeConstant(1));
+        for (ADD variable : variables) {
+            ADD negated = variable.complement();
+            List<ADD> next = new ArrayList<ADD>();
+            for (int j = 0; j <= Math.min(exactly.size(), upperBound); j++) {
+                ADD without = (j < exactly.size()) ? negated.and(exactly.get(j)) : jadd.makeConstant(0);
+                ADD with = (j > 0) ? variable.and(exactly.get(j - 1)) : jadd.makeConstant(0);
+                next.add(or(without, with));
+            }
+            releaseAll(exactly);
+            negated.release();
+            exactly = next;
+        }
+        ADD result = jadd.makeConstant(0);
+        for (int j = Math.max(min, 0); j < exactly.size(); j++) {
+            result = or(result, exactly.get(j).copy());
+        }
+        releaseAll(exactly);
+        return result;
+    }
+
+    private ADD disjunction(List<ADD> variables) {
+        ADD result = jadd.makeConstant(0);
+        for (ADD variable : variables) {
+            result = or(result, variable.copy());
+        }
+        return result;
+    }
+
+    private ADD encodeClause(CNFClause clause) {
+        ADD result = jadd.makeConstant(0);
+        for (CNFLiteral literal : clause.getLiterals()) {
+            ADD variable = jadd.getVariable(literal.getVariable().getID());
+            result = or(result, literal.isPositive() ? variable.copy() : variable.complement());
+        }
+        return result;
+    }
+
+    /**
+     * Encodes {@code antecedent -> consequent} for variables (which belong
+     * to the manager, thus are not released).
+     */
+    private ADD implies(ADD antecedent, ADD consequent) {
+        return impliesOwned(antecedent, consequent.copy());
+    }
+
+    /**
+     * Same as {@link #implies(ADD, ADD)}, but releasing the consequent.
+     */
+    private static ADD impliesOwned(ADD antecedent, ADD consequent) {
+        return or(antecedent.complement(), consequent);
+    }
+
+    /**
+     * Conjoins two owned ADDs, releasing them.
+     */
+    private static ADD and(ADD first, ADD second) {
+        ADD conjunction = first.and(second);
+        first.release();
+        second.release();
+        return conjunction;
+    }
+
+    /**
+     * Disjoins two owned ADDs, releasing them.
+     */
+    private static ADD or(ADD first, ADD second) {
+        ADD disjunction = first.or(second);
+        first.release();
+        second.release();
+        return disjunction;
+    }
+
+    private static void releaseAll(List<ADD> adds) {
+        for (ADD add : adds) {
+            add.release();
+        }
+    }
+
+    private static List<FeatureTreeNode> getChildren(FeatureTreeNode node) {
+        List<FeatureTreeNode> children = new ArrayList<FeatureTreeNode>();
+        for (int i = 0; i < node.getChildCount(); i++) {
+            children.add((FeatureTreeNode) node.getChildAt(i));
+        }
+        return children;
+    }
+
+}
@@ -0,0 +1,352 @@
+package fdtmc;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Reduces FDTMCs prior to model checking, preserving the probability of
+ * reaching the success state (as a function of the FDTMC's variables).
+ *
+ * The reduction comprises:
+ *     - removal of states unreachable from the initial state;
+ *     - probabilistic lumping, i.e., merging of bisimilar states; and
+ *     - elimination of intermediate states whose transitions all have
+ *       constant probabilities, such as the chains of message states
+ *       (each with a transition to the next one and another one to the
+ *       error state). Incoming and outgoing transitions are combined
+ *       into transitions with the product probability.
+ *
+ * Only transitions with constant probabilities are ever combined. States
+ * incident to transitions with variable probabilities (interfaces,
+ * presence transitions, parameterized loops), states with self-loops and
+ * the initial, success and error states are kept intact.
+ *
+ * The reduced FDTMC is meant for model checking only: interfaces become
+ * plain transitions (with the very same probabilities), so it must not be
+ * used for inlining.
+ */
+public class FDTMCReducer {
+
+    private static final MathContext PRECISION = MathContext.DECIMAL128;
+
+    /**
+     * A transition whose probability is either a constant ({@code value})
+     * or a variable expression. {@code expression} holds the original
+     * probability, if the transition was not the result of a reduction.
+     */
+    private static class Edge {
+        State target;
+        String actionName;
+        BigDecimal value;
+        String expression;
+
+        Edge(State target, String actionName, BigDecimal value, String expression) {
+            this.target = target;
+            this.actionName = actionName;
+            this.value = value;
+            this.expression = expression;
+        }
+
+        boolean isConstant() {
+            return value != null;
+        }
+
+        String getProbability() {
+            return (expression != null) ? expression : value.stripTrailingZeros().toPlainString();
+        }
+    }
+
+    private State initialState;
+    private State successState;
+    private State errorState;
+    private Map<State, List<Edge>> successors = new LinkedHashMap<State, List<Edge>>();
+    private Set<State> protectedStates = new HashSet<State>();
+
+    private FDTMCReducer(FDTMC fdtmc) {
+        initialState = fdtmc.getInitialState();
+        successState = fdtmc.getSuccessState();
+        errorState = fdtmc.getErrorState();
+        for (Map.Entry<State, List<Transition>> entry : fdtmc.getTransitions().entrySet()) {
+            List<Edge> edges = null;
+            if (entry.getValue() != null) {
+                edges = new LinkedList<Edge>();
+                for (Transition transition : entry.getValue()) {
+                    edges.add(toEdge(transition));
+                }
+            }
+            successors.put(entry.getKey(), edges);
+        }
+    }
+
+    /**
+     * Returns a reduced FDTMC with the same probability of reaching the
+     * success state as {@code fdtmc}. The given FDTMC is left untouched.
+     *
+     * @param fdtmc
+     * @return
+     */
+    public static FDTMC reduce(FDTMC fdtmc) {
+        if (fdtmc.getInitialState() == null) {
+            return fdtmc;
+        }
+        FDTMCReducer reducer = new FDTMCReducer(fdtmc);
+        reducer.removeUnreachableStates();
+        reducer.protectStates();
+        reducer.lumpBisimilarStates();
+        reducer.eliminateConstantStates();
+        return reducer.toFDTMC(fdtmc.getVariableName());
+    }
+
+    private static Edge toEdge(Transition transition) {
+        BigDecimal value = null;
+        try {
+            value = new BigDecimal(transition.getProbability().trim());
+        } catch (NumberFormatException e) {
+            // Variable probability
+        }
+        return new Edge(transition.getTarget(), transition.getActionName(), value, transition.getProbability());
+    }
+
+    private void removeUnreachableStates() {
+        Set<State> reachable = new LinkedHashSet<State>();
+        List<State> toVisit = new ArrayList<State>();
+        toVisit.add(initialState);
+        while (!toVisit.isEmpty()) {
+            State state = toVisit.remove(toVisit.size() - 1);
+            if (reachable.add(state) && successors.get(state) != null) {
+                for (Edge edge : successors.get(state)) {
+                    toVisit.add(edge.target);
+                }
+            }
+        }
+        // Labeled states are needed by the reliability property,
+        // even if unreachable.
+        successors.keySet().removeIf(state -> !reachable.contains(state)
+                                              && state != successState
+                                              && state != errorState);
+        for (List<Edge> edges : successors.values()) {
+            if (edges != null) {
+                edges.removeIf(edge -> !successors.containsKey(edge.target));
+            }
+        }
+    }
+
+    private void protectStates() {
+        protectedStates.add(initialState);
+        if (successState != null) {
+            protectedStates.add(successState);
+        }
+        if (errorState != null) {
+            protectedStates.add(errorState);
+        }
+        for (Map.Entry<State, List<Edge>> entry : successors.entrySet()) {
+            State source = entry.getKey();
+            if (entry.getValue() == null) {
+                // Absorbing state
+                protectedStates.add(source);
+                continue;
+            }
+            for (Edge edge : entry.getValue()) {
+                if (!edge.isConstant() || edge.target == source) {
+                    protectedStates.add(source);
+                    protectedStates.add(edge.target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Partition refinement: non-protected states start in the same block,
+     * which is split until all states in a block have the same probability
+     * of moving into each block. Every block is then merged into its first
+     * state.
+     */
+    private void lumpBisimilarStates() {
+        Map<State, Integer> blocks = new HashMap<State, Integer>();
+        int numberOfBlocks = 1;
+        for (State state : successors.keySet()) {
+            blocks.put(state, protectedStates.contains(state) ? numberOfBlocks++ : 0);
+        }
+
+        boolean refined = true;
+        while (refined) {
+            Map<List<Object>, Integer> signatures = new HashMap<List<Object>, Integer>();
+            Map<State, Integer> newBlocks = new HashMap<State, Integer>();
+            for (State state : successors.keySet()) {
+                List<Object> signature = new ArrayList<Object>();
+                signature.add(blocks.get(state));
+                if (!protectedStates.contains(state)) {
+                    signature.add(blockProbabilities(state, blocks));
+                }
+                Integer block = signatures.get(signature);
+                if (block == null) {
+                    block = signatures.size();
+                    signatures.put(signature, block);
+                }
+                newBlocks.put(state, block);
+            }
+            refined = signatures.size() > numberOfBlocks;
+            numberOfBlocks = signatures.size();
+            blocks = newBlocks;
+        }
+
+        Map<Integer, State> representatives = new HashMap<Integer, State>();
+        Map<State, State> merged = new HashMap<State, State>();
+        for (State state : successors.keySet()) {
+            State representative = representatives.computeIfAbsent(blocks.get(state), b -> state);
+            if (representative != state) {
+                merged.put(state, representative);
+            }
+        }
+        if (merged.isEmpty()) {
+            return;
+        }
+        successors.keySet().removeAll(merged.keySet());
+        for (Map.Entry<State, List<Edge>> entry : successors.entrySet()) {
+            if (entry.getValue() != null) {
+                List<Edge> redirected = new LinkedList<Edge>();
+                for (Edge edge : entry.getValue()) {
+                    State target = merged.getOrDefault(edge.target, edge.target);
+                    addEdge(redirected, new Edge(target, edge.actionName, edge.value, edge.expression));
+                }
+                entry.setValue(redirected);
+            }
+        }
+    }
+
+    /**
+     * @return the probability of moving from {@code state} (which must
+     *      only have constant transitions) into each block.
+     */
+    private Map<Integer, BigDecimal> blockProbabilities(State state, Map<State, Integer> blocks) {
+        Map<Integer, BigDecimal> probabilities = new TreeMap<Integer, BigDecimal>();
+        for (Edge edge : successors.get(state)) {
+            probabilities.merge(blocks.get(edge.target), edge.value, (a, b) -> a.add(b, PRECISION));
+        }
+        // BigDecimal equality is scale-sensitive.
+        probabilities.replaceAll((block, value) -> value.stripTrailingZeros());
+        return probabilities;
+    }
+
+    /**
+     * Eliminates every non-protected state whose elimination does not
+     * increase the number of transitions (e.g., states in a chain).
+     */
+    private void eliminateConstantStates() {
+        Map<State, Set<State>> predecessors = new HashMap<State, Set<State>>();
+        for (Map.Entry<State, List<Edge>> entry : successors.entrySet()) {
+            if (entry.getValue() != null) {
+                for (Edge edge : entry.getValue()) {
+                    predecessors.computeIfAbsent(edge.target, t -> new LinkedHashSet<State>()).add(entry.getKey());
+                }
+            }
+        }
+
+        for (State state : new ArrayList<State>(successors.keySet())) {
+            if (protectedStates.contains(state)) {
+                continue;
+            }
+            List<Edge> outgoing = successors.get(state);
+            Set<State> incoming = predecessors.getOrDefault(state, new HashSet<State>());
+            if (incoming.size() * outgoing.size() > incoming.size() + outgoing.size()
+                    || !canBypass(state, incoming)) {
+                continue;
+            }
+            for (State predecessor : incoming) {
+                List<Edge> edges = successors.get(predecessor);
+                List<Edge> toState = new LinkedList<Edge>();
+                edges.removeIf(edge -> edge.target == state && toState.add(edge));
+                for (Edge in : toState) {
+                    for (Edge out : outgoing) {
+                        addEdge(edges, new Edge(out.target, "", in.value.multiply(out.value, PRECISION), null));
+                        predecessors.get(out.target).add(predecessor);
+                    }
+                }
+            }
+            for (Edge out : outgoing) {
+                predecessors.get(out.target).remove(state);
+            }
+            successors.remove(state);
+            predecessors.remove(state);
+        }
+    }
+
+    /**
+     * A state cannot be bypassed if the resulting transitions would have to
+     * be merged with variable ones or would create self-loops.
+     */
+    private boolean canBypass(State state, Set<State> incoming) {
+        for (State predecessor : incoming) {
+            for (Edge out : successors.get(state)) {
+                if (out.target == predecessor) {
+                    return false;
+                }
+                for (Edge edge : successors.get(predecessor)) {
+                    if (edge.target == out.target && !edge.isConstant()) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds {@code edge} to {@code edges}, summing it up with a constant
+     * transition to the same target, if any.
+     */
+    private static void addEdge(List<Edge> edges, Edge edge) {
+        if (edge.isConstant()) {
+            for (Edge existing : edges) {
+                if (existing.target == edge.target && existing.isConstant()) {
+                    existing.value = existing.value.add(edge.value, PRECISION);
+                    existing.expression = null;
+                    existing.actionName = "";
+                    return;
+                }
+            }
+        }
+        edges.add(edge);
+    }
+
+    private FDTMC toFDTMC(String variableName) {
+        FDTMC reduced = new FDTMC();
+        reduced.setVariableName(variableName);
+        Map<State, State> statesMapping = new HashMap<State, State>();
+        // The initial state goes first, so that it gets the lowest index.
+        statesMapping.put(initialState, reduced.createInitialState());
+        for (State state : successors.keySet()) {
+            if (state == initialState) {
+                continue;
+            } else if (state == successState) {
+                statesMapping.put(state, reduced.createSuccessState());
+            } else if (state == errorState) {
+                statesMapping.put(state, reduced.createErrorState());
+            } else {
+                statesMapping.put(state, reduced.createState(state.getLabel()));
+            }
+        }
+        for (Map.Entry<State, List<Edge>> entry : successors.entrySet()) {
+            if (entry.getValue() != null) {
+                for (Edge edge : entry.getValue()) {
+                    reduced.createTransition(statesMapping.get(entry.getKey()),
+                                             statesMapping.get(edge.target),
+                                             edge.actionName,
+                                             edge.getProbability());
+                }
+            }
+        }
+        return reduced;
+    }
+
+}
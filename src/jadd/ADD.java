@@ -2,14 +2,22 @@ package jadd;
 
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
 import java.util.Set;
 import java.util.Spliterator;
-import java.util.Spliterators.AbstractSpliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -42,6 +50,30 @@ public class ADD {
         BigcuddLibrary.Cudd_Ref(this.function);
     }
 
+    /**
+     * Releases the CUDD reference held by this ADD, so that its nodes which
+     * are not shared with other ADDs can be garbage collected by CUDD.
+     * This ADD must not be used afterwards. Releasing it twice is a no-op.
+     */
+    public synchronized void release() {
+        if (function != null) {
+            BigcuddLibrary.Cudd_RecursiveDeref(dd, function);
+            function = null;
+        }
+    }
+
+    public boolean isReleased() {
+        return function == null;
+    }
+
+    /**
+     * @return a new ADD for the same function, holding a CUDD reference
+     *      of its own (i.e., which outlives a {@link #release()} of this one).
+     */
+    public ADD copy() {
+        return new ADD(dd, function, variableStore);
+    }
+
     /**
      * Overriding finalize in order to free CUDD allocated memory.
      */
@@ -75,6 +107,21 @@ public class ADD {
         return apply(other, LOGICAL_OR);
     }
 
+    /**
+     * @return this function where it is greater than or equal to
+     *      {@code threshold} and 0 elsewhere.
+     */
+    public ADD threshold(ADD threshold) {
+        return apply(threshold, THRESHOLD);
+    }
+
+    /**
+     * Overloading for constant thresholds.
+     */
+    public ADD threshold(double threshold) {
+        return threshold(new ADD(dd, BigcuddLibrary.Cudd_addConst(dd, threshold), variableStore));
+    }
+
     private ADD apply(ADD other, Cudd_addApply_arg1_callback operation) {
         Pointer<DdNode> result = BigcuddLibrary.Cudd_addApply(dd,
                                                               Pointer.getPointer(operation),
@@ -127,6 +174,29 @@ public class ADD {
         return new ADD(dd, result, variableStore);
     }
 
+    /**
+     * Existentially quantifies the given variables out of this 0,1-ADD
+     * (i.e., the result is 1 wherever some assignment to {@code variables}
+     * makes this function 1).
+     * @param variables Names of the variables to be abstracted.
+     */
+    public ADD existentialAbstraction(Collection<String> variables) {
+        ADD cube = null;
+        for (String variable : variables) {
+            ADD var = variableStore.get(variable);
+            if (var != null) {
+                cube = (cube == null) ? var : cube.times(var);
+            }
+        }
+        if (cube == null) {
+            return this;
+        }
+        Pointer<DdNode> result = BigcuddLibrary.Cudd_addOrAbstract(dd,
+                                                                   this.function,
+                                                                   cube.function);
+        return new ADD(dd, result, variableStore);
+    }
+
     /**
      * Implements if-then-else with {@code condition} as the conditional.
      */
@@ -173,6 +243,87 @@ public class ADD {
         return eval(variables.toArray(new String[variables.size()]));
     }
 
+    /**
+     * Evaluates many configurations at once.
+     *
+     * Instead of walking the ADD from the root once per configuration,
+     * configurations are grouped by the value of each variable met along
+     * the way, so that every node is visited once per group of
+     * configurations which reach it.
+     *
+     * @param configurations Configurations as arrays of present variables.
+     * @return the value of each configuration, in the same order.
+     * @throws UnrecognizedVariableException
+     */
+    public double[] evalAll(List<String[]> configurations) throws UnrecognizedVariableException {
+        int n = configurations.size();
+        int[][] presenceVectors = new int[n][];
+        int[] group = new int[n];
+        for (int i = 0; i < n; i++) {
+            presenceVectors[i] = variableStore.toPresenceVector(configurations.get(i));
+            group[i] = i;
+        }
+        double[] values = new double[n];
+        if (n > 0) {
+            evalAll(function, presenceVectors, group, 0, n, values, new HashMap<Long, DecodedNode>());
+        }
+        return values;
+    }
+
+    /**
+     * Resolves configurations group[from..to) starting at {@code node}.
+     * The group is partitioned in place: configurations in which the node's
+     * variable is absent follow the else-child, the others the then-child.
+     */
+    private void evalAll(Pointer<DdNode> node, int[][] presenceVectors, int[] group, int from, int to, double[] values, Map<Long, DecodedNode> decoded) {
+        DecodedNode current = decoded.computeIfAbsent(node.getPeer(), peer -> new DecodedNode(node));
+        if (current.isConstant) {
+            for (int i = from; i < to; i++) {
+                values[group[i]] = current.value;
+            }
+            return;
+        }
+        int split = from;
+        for (int i = from; i < to; i++) {
+            if (presenceVectors[group[i]][current.index] == 0) {
+                int swap = group[split];
+                group[split] = group[i];
+                group[i] = swap;
+                split++;
+            }
+        }
+        if (split > from) {
+            evalAll(current.elseChild, presenceVectors, group, from, split, values, decoded);
+        }
+        if (to > split) {
+            evalAll(current.thenChild, presenceVectors, group, split, to, values, decoded);
+        }
+    }
+
+    /**
+     * Java-side copy of a CUDD node, so that native structures are read
+     * only once per node during batch evaluation.
+     */
+    private static class DecodedNode {
+        private boolean isConstant;
+        private double value;
+        private short index;
+        private Pointer<DdNode> thenChild;
+        private Pointer<DdNode> elseChild;
+
+        DecodedNode(Pointer<DdNode> node) {
+            DdNode ddNode = node.get();
+            isConstant = BigcuddLibrary.Cudd_IsNonConstant(node) != 1;
+            if (isConstant) {
+                value = ddNode.type().value();
+            } else {
+                index = ddNode.index();
+                thenChild = ddNode.type().kids().T();
+                elseChild = ddNode.type().kids().E();
+            }
+        }
+    }
+
     /**
      * Checks if a configuration is valid (non-zero).
      * @param configuration
@@ -278,6 +429,30 @@ public class ADD {
                                                      1) == 1);
     }
 
+    /**
+     * Exact equality. Since ADDs are canonical, two ADDs over the same
+     * manager denote the same function iff they share the root node, so
+     * this check is constant-time (unlike {@link #equals(Object)}, there is
+     * no tolerance for floating-point terminals).
+     *
+     * @param other
+     * @return
+     */
+    public boolean isIdenticalTo(ADD other) {
+        return other != null && this.function.getPeer() == other.function.getPeer();
+    }
+
+    /**
+     * Key for hashing ADDs by identity: two ADDs over the same manager have
+     * the same key iff {@link #isIdenticalTo(ADD)} holds for them. The key is
+     * only meaningful while the ADD is referenced.
+     *
+     * @return
+     */
+    public long getIdentityKey() {
+        return function.getPeer();
+    }
+
     public int getDeadNodesCount() {
     	return BigcuddLibrary.Cudd_ReadDead(dd);
     }
@@ -294,6 +469,241 @@ public class ADD {
     	return BigcuddLibrary.Cudd_CountPath(function) - getPathsToNonZeroTerminalsCount();
     }
 
+    /**
+     * Number of assignments to all known variables mapped to a non-zero
+     * value (i.e., the number of configurations
+     * {@link #getExpandedConfigurations()} would yield).
+     */
+    public double getNonZeroAssignmentsCount() {
+        return BigcuddLibrary.Cudd_CountMinterm(dd, function, BigcuddLibrary.Cudd_ReadSize(dd));
+    }
+
+    /**
+     * Maximum value of this function.
+     */
+    public double getMaxValue() {
+        return BigcuddLibrary.Cudd_addFindMax(dd, function).get().type().value();
+    }
+
+    /**
+     * Minimum non-zero value of this function, or NaN if it is constantly zero.
+     */
+    public double getMinNonZeroValue() {
+        return nonZeroBound(function, false, new HashMap<Long, Double>(), new HashMap<Long, DecodedNode>());
+    }
+
+    /**
+     * Mean of the non-zero values of this function over assignments in which
+     * each variable is independently present with the given probability
+     * (0.5 for variables absent from {@code presenceProbabilities}).
+     * An empty map yields the plain average over non-zero assignments.
+     *
+     * @return the mean, or NaN if this function is constantly zero.
+     */
+    public double getNonZeroMean(Map<String, Double> presenceProbabilities) {
+        double[] expectations = expectations(function,
+                                             presenceProbabilities,
+                                             new HashMap<Long, double[]>(),
+                                             new HashMap<Long, DecodedNode>());
+        // E[f] / P(f != 0) = E[f | f != 0]
+        return expectations[0] / expectations[1];
+    }
+
+    /**
+     * Draws uniformly random assignments (with replacement) among those
+     * mapped to a non-zero value, e.g., valid configurations of a
+     * feature model.
+     *
+     * The fraction of non-zero assignments below each node is computed
+     * once; each sample then descends from the root taking either child
+     * with probability proportional to its fraction. Variables skipped
+     * along the path are "don't care", so they are drawn uniformly.
+     *
+     * Samples are produced lazily and in a deterministic order for a
+     * given {@code random} seed, even if the stream is made parallel.
+     *
+     * @param sampleSize Number of assignments to be drawn.
+     * @param random Source of randomness.
+     */
+    public Stream<Collection<String>> getSampledConfigurations(long sampleSize, Random random) {
+        Map<Long, double[]> fractions = new HashMap<Long, double[]>();
+        Map<Long, DecodedNode> decoded = new HashMap<Long, DecodedNode>();
+        Map<String, Double> uniform = Collections.emptyMap();
+        if (expectations(function, uniform, fractions, decoded)[1] == 0) {
+            return Stream.empty();
+        }
+        int numVars = BigcuddLibrary.Cudd_ReadSize(dd);
+
+        Iterator<Collection<String>> sampler = new Iterator<Collection<String>>() {
+            private long drawn = 0;
+
+            @Override
+            public boolean hasNext() {
+                return drawn < sampleSize;
+            }
+
+            @Override
+            public Collection<String> next() {
+                drawn++;
+                int[] presenceVector = new int[numVars];
+                for (int i = 0; i < numVars; i++) {
+                    presenceVector[i] = random.nextBoolean() ? 1 : 0;
+                }
+                DecodedNode current = decoded.computeIfAbsent(function.getPeer(), peer -> new DecodedNode(function));
+                while (!current.isConstant) {
+                    double thenFraction = expectations(current.thenChild, uniform, fractions, decoded)[1];
+                    double elseFraction = expectations(current.elseChild, uniform, fractions, decoded)[1];
+                    boolean takeThen = random.nextDouble() * (thenFraction + elseFraction) < thenFraction;
+                    presenceVector[current.index] = takeThen ? 1 : 0;
+                    Pointer<DdNode> child = takeThen ? current.thenChild : current.elseChild;
+                    current = decoded.computeIfAbsent(child.getPeer(), peer -> new DecodedNode(child));
+                }
+                return variableStore.fromPresenceVector(presenceVector);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(sampler,
+                                                             sampleSize,
+                                                             Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE),
+                                    false);
+    }
+
+    /**
+     * Returns up to {@code k} assignments with the highest (or lowest)
+     * non-zero values, in order, without enumerating the others.
+     *
+     * Cubes are explored best-first, each partial path being bounded by
+     * the best non-zero value reachable from its last node. "Don't care"
+     * variables of a cube are expanded lazily, as in
+     * {@link #getExpandedConfigurations()}.
+     *
+     * @param k Maximum number of assignments to be returned.
+     * @param highest Whether to look for the highest or the lowest values.
+     * @return a map from assignments (as lists of present variables) to
+     *      the respective values, in iteration order.
+     */
+    public Map<Collection<String>, Double> getExtremeConfigurations(int k, boolean highest) {
+        Map<Long, Double> bounds = new HashMap<Long, Double>();
+        Map<Long, DecodedNode> decoded = new HashMap<Long, DecodedNode>();
+        Map<Collection<String>, Double> extremes = new LinkedHashMap<Collection<String>, Double>();
+
+        double rootBound = nonZeroBound(function, highest, bounds, decoded);
+        if (k <= 0 || Double.isNaN(rootBound)) {
+            return extremes;
+        }
+        Comparator<PartialPath> byBound = Comparator.comparingDouble(path -> path.bound);
+        PriorityQueue<PartialPath> frontier = new PriorityQueue<PartialPath>(highest ? byBound.reversed() : byBound);
+        int[] emptyAssignment = new int[BigcuddLibrary.Cudd_ReadSize(dd)];
+        Arrays.fill(emptyAssignment, 2);
+        frontier.add(new PartialPath(function, emptyAssignment, rootBound));
+
+        while (!frontier.isEmpty() && extremes.size() < k) {
+            PartialPath path = frontier.poll();
+            DecodedNode node = decoded.computeIfAbsent(path.node.getPeer(), peer -> new DecodedNode(path.node));
+            if (node.isConstant) {
+                expandCube(path.assignment, k - extremes.size())
+                        .forEach(configuration -> extremes.put(configuration, node.value));
+                continue;
+            }
+            for (int value = 0; value <= 1; value++) {
+                Pointer<DdNode> child = (value == 0) ? node.elseChild : node.thenChild;
+                double bound = nonZeroBound(child, highest, bounds, decoded);
+                if (!Double.isNaN(bound)) {
+                    int[] assignment = path.assignment.clone();
+                    assignment[node.index] = value;
+                    frontier.add(new PartialPath(child, assignment, bound));
+                }
+            }
+        }
+        return extremes;
+    }
+
+    /**
+     * Expands at most {@code limit} concrete assignments from a cube.
+     */
+    private List<Collection<String>> expandCube(int[] cube, int limit) {
+        List<Short> dontCares = new ArrayList<Short>();
+        for (short i = 0; i < cube.length; i++) {
+            if (cube[i] == 2) {
+                dontCares.add(i);
+            }
+        }
+        long expansions = (dontCares.size() >= Long.SIZE - 1) ? Long.MAX_VALUE : 1L << dontCares.size();
+        List<Collection<String>> configurations = new ArrayList<Collection<String>>();
+        for (long mask = 0; mask < expansions && configurations.size() < limit; mask++) {
+            int[] presenceVector = cube.clone();
+            for (int bit = 0; bit < dontCares.size(); bit++) {
+                presenceVector[dontCares.get(bit)] = (bit < Long.SIZE && ((mask >>> bit) & 1) == 1) ? 1 : 0;
+            }
+            configurations.add(variableStore.fromPresenceVector(presenceVector));
+        }
+        return configurations;
+    }
+
+    /**
+     * Highest (or lowest) non-zero value reachable from {@code node},
+     * or NaN if there is none.
+     */
+    private double nonZeroBound(Pointer<DdNode> node, boolean highest, Map<Long, Double> bounds, Map<Long, DecodedNode> decoded) {
+        Double bound = bounds.get(node.getPeer());
+        if (bound != null) {
+            return bound;
+        }
+        DecodedNode current = decoded.computeIfAbsent(node.getPeer(), peer -> new DecodedNode(node));
+        double result;
+        if (current.isConstant) {
+            result = (current.value == 0) ? Double.NaN : current.value;
+        } else {
+            double thenBound = nonZeroBound(current.thenChild, highest, bounds, decoded);
+            double elseBound = nonZeroBound(current.elseChild, highest, bounds, decoded);
+            if (Double.isNaN(thenBound)) {
+                result = elseBound;
+            } else if (Double.isNaN(elseBound)) {
+                result = thenBound;
+            } else {
+                result = highest ? Math.max(thenBound, elseBound) : Math.min(thenBound, elseBound);
+            }
+        }
+        bounds.put(node.getPeer(), result);
+        return result;
+    }
+
+    /**
+     * Expected value of this function and probability of it being non-zero,
+     * for independently present variables. Variables skipped along a path
+     * do not affect either, so no level bookkeeping is needed.
+     */
+    private double[] expectations(Pointer<DdNode> node, Map<String, Double> presenceProbabilities, Map<Long, double[]> memo, Map<Long, DecodedNode> decoded) {
+        double[] cached = memo.get(node.getPeer());
+        if (cached != null) {
+            return cached;
+        }
+        DecodedNode current = decoded.computeIfAbsent(node.getPeer(), peer -> new DecodedNode(node));
+        double[] result;
+        if (current.isConstant) {
+            result = new double[] {current.value, (current.value == 0) ? 0 : 1};
+        } else {
+            double p = presenceProbabilities.getOrDefault(variableStore.getName(current.index), 0.5);
+            double[] thenExpectations = expectations(current.thenChild, presenceProbabilities, memo, decoded);
+            double[] elseExpectations = expectations(current.elseChild, presenceProbabilities, memo, decoded);
+            result = new double[] {p*thenExpectations[0] + (1-p)*elseExpectations[0],
+                                   p*thenExpectations[1] + (1-p)*elseExpectations[1]};
+        }
+        memo.put(node.getPeer(), result);
+        return result;
+    }
+
+    private static class PartialPath {
+        private Pointer<DdNode> node;
+        private int[] assignment;
+        private double bound;
+
+        PartialPath(Pointer<DdNode> node, int[] assignment, double bound) {
+            this.node = node;
+            this.assignment = assignment;
+            this.bound = bound;
+        }
+    }
+
     public int getReorderingsCount() {
     	return BigcuddLibrary.Cudd_ReadReorderings(dd);
     }
@@ -355,6 +765,15 @@ public class ADD {
         }
     };
 
+    private static final BigcuddLibrary.Cudd_addApply_arg1_callback THRESHOLD = new BigcuddLibrary.Cudd_addApply_arg1_callback() {
+        @Override
+        public Pointer<DdNode > apply(Pointer<BigcuddLibrary.DdManager > dd,
+                                      Pointer<Pointer<DdNode > > node1,
+                                      Pointer<Pointer<DdNode > > node2) {
+            return BigcuddLibrary.Cudd_addThreshold(dd, node1, node2);
+        }
+    };
+
     private static final BigcuddLibrary.Cudd_addApply_arg1_callback LOGICAL_OR = new BigcuddLibrary.Cudd_addApply_arg1_callback() {
         @Override
         public Pointer<DdNode > apply(Pointer<BigcuddLibrary.DdManager > dd,
@@ -401,7 +820,27 @@ public class ADD {
         }
     }
 
-    private class CubeSpliterator extends AbstractSpliterator<Collection<String>> {
+    /**
+     * Spliterator over the (expanded) non-zero cubes of this ADD.
+     *
+     * Splitting happens on the top variable of the sub-ADD still to be
+     * enumerated: the else-cofactor is handed over to the new spliterator
+     * and the then-cofactor is kept, with the split variable fixed
+     * accordingly in each half. Cofactors which are the zero constant are
+     * skipped altogether. Each half is then enumerated independently by
+     * its own CUDD cube generator, which is only created upon the first
+     * call to {@link #tryAdvance(Consumer)}.
+     *
+     * Enumeration only reads the diagram, so halves may be traversed by
+     * different threads as long as no one reorders variables meanwhile.
+     */
+    private class CubeSpliterator implements Spliterator<Collection<String>> {
+        private static final int UNASSIGNED = 2;
+
+        private Pointer<DdNode> node;
+        // Values of the variables fixed by splits (UNASSIGNED elsewhere).
+        private int[] assignment;
+        private long estimatedSize;
 
         private Pointer<Pointer<Integer>> cubePtr;
         private Pointer<Double> valuePtr;
@@ -410,34 +849,63 @@ public class ADD {
         private Iterator<List<String>> expandedIterator;
 
         protected CubeSpliterator() {
-            super((long) BigcuddLibrary.Cudd_CountPathsToNonZero(function),
-                  Spliterator.SIZED | Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.ORDERED);
-
-            Pointer<Integer> dummy = Pointer.allocateInt();
-            // A pointer to a freshly allocated pointer to int.
-            // As Cudd_FirstCube and Cudd_NextCube allocate the returned cubes,
-            // allocating a whole int[] here makes no sense. Thus, we allocate
-            // only the position where the address to the generated cubes are
-            // to be stored.
-            cubePtr = Pointer.pointerToPointer(dummy);
-            // A pointer to a freshly allocated double.
-            valuePtr = Pointer.pointerToDouble(0);
-
-            // So let's start the iteration!
-            generator = BigcuddLibrary.Cudd_FirstCube(dd,
-                                                      function,
-                                                      cubePtr,
-                                                      valuePtr);
+            this(function, null);
             numVars = BigcuddLibrary.Cudd_ReadSize(dd);
+            assignment = new int[numVars];
+            Arrays.fill(assignment, UNASSIGNED);
+            skipZeroCofactors();
+        }
 
+        private CubeSpliterator(Pointer<DdNode> node, int[] assignment) {
+            this.node = node;
+            this.assignment = assignment;
+            if (assignment != null) {
+                numVars = assignment.length;
+            }
+            this.estimatedSize = (long) BigcuddLibrary.Cudd_CountPathsToNonZero(node);
+        }
+
+        @Override
+        public Spliterator<Collection<String>> trySplit() {
+            if (generator != null || isConstant(node)) {
+                return null;
+            }
+            DdNode top = node.get();
+            short index = top.index();
+            Pointer<DdNode> thenChild = top.type().kids().T();
+            Pointer<DdNode> elseChild = top.type().kids().E();
+
+            int[] elseAssignment = assignment.clone();
+            elseAssignment[index] = 0;
+            assignment[index] = 1;
+            node = thenChild;
+            skipZeroCofactors();
+            estimatedSize = (long) BigcuddLibrary.Cudd_CountPathsToNonZero(node);
+
+            // CUDD's generator visits else-branches first, so the else half
+            // is the prefix of this spliterator's encounter order.
+            CubeSpliterator prefix = new CubeSpliterator(elseChild, elseAssignment);
+            prefix.skipZeroCofactors();
+            return prefix;
         }
 
         @Override
         public boolean tryAdvance(Consumer<? super Collection<String>> action) {
             if (expandedIterator == null || !expandedIterator.hasNext()) {
+                if (generator == null) {
+                    if (isZero(node)) {
+                        return false;
+                    }
+                    startGenerator();
+                }
                 if (BigcuddLibrary.Cudd_IsGenEmpty(generator) == 0) {
                     Pointer<Integer> cube = cubePtr.getPointer(Integer.class);
                     int[] presenceVector = cube.getInts(numVars);
+                    for (int i = 0; i < numVars; i++) {
+                        if (assignment[i] != UNASSIGNED) {
+                            presenceVector[i] = assignment[i];
+                        }
+                    }
                     List<String> configuration = variableStore.fromPresenceVector(presenceVector);
 
                     Collection<List<String>> expanded = expandDontCares(configuration);
@@ -447,10 +915,10 @@ public class ADD {
                             cubePtr,
                             valuePtr);
                 } else {
-                    if (generator != null) {
-                        BigcuddLibrary.Cudd_GenFree(generator);
-                        generator = null;
-                    }
+                    BigcuddLibrary.Cudd_GenFree(generator);
+                    generator = null;
+                    // Nothing left to enumerate in this half.
+                    node = BigcuddLibrary.Cudd_ReadZero(dd);
                     return false;
                 }
             }
@@ -459,6 +927,62 @@ public class ADD {
             return true;
         }
 
+        @Override
+        public long estimateSize() {
+            return estimatedSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.ORDERED;
+        }
+
+        private void startGenerator() {
+            Pointer<Integer> dummy = Pointer.allocateInt();
+            // A pointer to a freshly allocated pointer to int.
+            // As Cudd_FirstCube and Cudd_NextCube allocate the returned cubes,
+            // allocating a whole int[] here makes no sense. Thus, we allocate
+            // only the position where the address to the generated cubes are
+            // to be stored.
+            cubePtr = Pointer.pointerToPointer(dummy);
+            // A pointer to a freshly allocated double.
+            valuePtr = Pointer.pointerToDouble(0);
+
+            generator = BigcuddLibrary.Cudd_FirstCube(dd,
+                                                      node,
+                                                      cubePtr,
+                                                      valuePtr);
+        }
+
+        /**
+         * Descends through nodes having a zero cofactor, so that the
+         * next split actually halves the work.
+         */
+        private void skipZeroCofactors() {
+            while (!isConstant(node)) {
+                DdNode top = node.get();
+                Pointer<DdNode> thenChild = top.type().kids().T();
+                Pointer<DdNode> elseChild = top.type().kids().E();
+                if (isZero(thenChild)) {
+                    assignment[top.index()] = 0;
+                    node = elseChild;
+                } else if (isZero(elseChild)) {
+                    assignment[top.index()] = 1;
+                    node = thenChild;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private boolean isConstant(Pointer<DdNode> node) {
+            return 1 != BigcuddLibrary.Cudd_IsNonConstant(node);
+        }
+
+        private boolean isZero(Pointer<DdNode> node) {
+            return isConstant(node) && node.get().type().value() == 0;
+        }
+
     }
     
     public void setVariableStore(VariableStore vs) {
@@ -16,7 +16,6 @@ import org.bridj.IntValuedEnum;
 import org.bridj.Pointer;
 
 import bigcudd.BigcuddLibrary;
-import bigcudd.BigcuddLibrary.Cudd_ReorderingType;
 import bigcudd.DdNode;
 
 /**
@@ -30,23 +29,32 @@ public class JADD {
 	private Pointer<BigcuddLibrary.DdManager> dd;
 	private VariableStore variableStore = new VariableStore();
 
+	private ReorderingPolicy reorderingPolicy = ReorderingPolicy.DEFAULT;
+	private ReorderingStats reorderingStats = new ReorderingStats();
+	// Live nodes right after the last reordering (baseline for growth-triggered reordering).
+	private long nodesAtLastReordering = 0;
+
 	public JADD() {
-		dd = BigcuddLibrary.Cudd_Init(0,
-				0,
-				BigcuddLibrary.CUDD_UNIQUE_SLOTS,
-				BigcuddLibrary.CUDD_CACHE_SLOTS,
-				0);
-		IntValuedEnum<Cudd_ReorderingType> method = Cudd_ReorderingType.CUDD_REORDER_SYMM_SIFT;
-		//        BigcuddLibrary.Cudd_AutodynEnable(dd, method);
+		this(ManagerConfig.DEFAULT);
+	}
+
+	/**
+	 * @param config Sizing of the underlying CUDD manager.
+	 */
+	public JADD(ManagerConfig config) {
+		dd = initManager(config);
 	}
 
 	public JADD(String tableFileName) {
-		dd = BigcuddLibrary.Cudd_Init(0,
-				0,
-				BigcuddLibrary.CUDD_UNIQUE_SLOTS,
-				BigcuddLibrary.CUDD_CACHE_SLOTS,
-				0);
-		IntValuedEnum<Cudd_ReorderingType> method = Cudd_ReorderingType.CUDD_REORDER_SYMM_SIFT;
+		this(tableFileName, ManagerConfig.DEFAULT);
+	}
+
+	/**
+	 * @param tableFileName File with the variables to be restored.
+	 * @param config Sizing of the underlying CUDD manager.
+	 */
+	public JADD(String tableFileName, ManagerConfig config) {
+		dd = initManager(config);
 
 		try (Stream<String> stream = Files.lines(Paths.get(tableFileName))) {
 			List<List<Object>> tokens = stream.map(line -> parseLine(line)).collect(Collectors.toList());
@@ -59,6 +67,22 @@ public class JADD {
 		}
 	}
 
+	private static Pointer<BigcuddLibrary.DdManager> initManager(ManagerConfig config) {
+		Pointer<BigcuddLibrary.DdManager> manager = BigcuddLibrary.Cudd_Init(0,
+				0,
+				(config.getUniqueSlots() > 0) ? config.getUniqueSlots() : BigcuddLibrary.CUDD_UNIQUE_SLOTS,
+				(config.getCacheSlots() > 0) ? config.getCacheSlots() : BigcuddLibrary.CUDD_CACHE_SLOTS,
+				config.getMaxMemory());
+		// Otherwise, CUDD derives these from the maximum memory.
+		if (config.getLooseUpTo() > 0) {
+			BigcuddLibrary.Cudd_SetLooseUpTo(manager, config.getLooseUpTo());
+		}
+		if (config.getMaxCacheHard() > 0) {
+			BigcuddLibrary.Cudd_SetMaxCacheHard(manager, config.getMaxCacheHard());
+		}
+		return manager;
+	}
+
 	public ADD makeConstant(double constant) {
 		// TODO: isolate whether predefined constants have impact on the GC bug.
 		if (constant == 0) {
@@ -84,12 +108,95 @@ public class JADD {
 	}
 
 	/**
-	 * Performs an optimal reordering of the variables for the managed ADDs
-	 * based on the sifting heuristic.
+	 * Sets the policy which rules variable reorderings from now on.
+	 * Dynamic reordering is enabled or disabled accordingly.
+	 * @param policy
+	 */
+	public void setReorderingPolicy(ReorderingPolicy policy) {
+		this.reorderingPolicy = policy;
+		if (policy.isDynamic()) {
+			BigcuddLibrary.Cudd_AutodynEnable(dd, policy.getHeuristic().toCudd());
+			if (policy.getDynamicThreshold() > 0) {
+				BigcuddLibrary.Cudd_SetNextReordering(dd, policy.getDynamicThreshold());
+			}
+		} else {
+			BigcuddLibrary.Cudd_AutodynDisable(dd);
+		}
+		nodesAtLastReordering = getLiveNodeCount();
+	}
+
+	public ReorderingPolicy getReorderingPolicy() {
+		return reorderingPolicy;
+	}
+
+	/**
+	 * Performs a reordering of the variables for the managed ADDs
+	 * based on the heuristic of the current reordering policy
+	 * (symmetric sifting, by default).
 	 */
 	public void reorderVariables() {
-		IntValuedEnum<Cudd_ReorderingType> heuristic = Cudd_ReorderingType.CUDD_REORDER_SYMM_SIFT;
-		BigcuddLibrary.Cudd_ReduceHeap(dd, heuristic, 1);
+		if (reorderingPolicy.getHeuristic() == ReorderingPolicy.Heuristic.NONE) {
+			return;
+		}
+		long nodesBefore = getLiveNodeCount();
+		long startTime = System.currentTimeMillis();
+		BigcuddLibrary.Cudd_ReduceHeap(dd, reorderingPolicy.getHeuristic().toCudd(), 1);
+		long elapsedTime = System.currentTimeMillis() - startTime;
+		long nodesAfter = getLiveNodeCount();
+
+		reorderingStats.recordExplicit(elapsedTime, nodesBefore, nodesAfter);
+		nodesAtLastReordering = nodesAfter;
+	}
+
+	/**
+	 * Reorders variables if the reordering policy is growth-triggered and
+	 * the number of live nodes has grown by more than the policy's growth
+	 * factor since the last reordering.
+	 *
+	 * @return whether variables were reordered.
+	 */
+	public boolean reorderIfGrown() {
+		if (!reorderingPolicy.isGrowthTriggered()) {
+			return false;
+		}
+		long liveNodes = getLiveNodeCount();
+		if (liveNodes > reorderingPolicy.getGrowthFactor() * Math.max(nodesAtLastReordering, 1)) {
+			reorderVariables();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Number of nodes in the unique table which are still referenced.
+	 */
+	public long getLiveNodeCount() {
+		return BigcuddLibrary.Cudd_ReadKeys(dd) - BigcuddLibrary.Cudd_ReadDead(dd);
+	}
+
+	/**
+	 * Takes a snapshot of the counters of the underlying CUDD manager.
+	 * It is safe to call this method concurrently with other operations.
+	 */
+	public ManagerStats getManagerStats() {
+		return new ManagerStats(BigcuddLibrary.Cudd_ReadMemoryInUse(dd),
+				BigcuddLibrary.Cudd_ReadMaxMemory(dd),
+				BigcuddLibrary.Cudd_ReadKeys(dd),
+				BigcuddLibrary.Cudd_ReadDead(dd),
+				BigcuddLibrary.Cudd_ReadSlots(dd),
+				BigcuddLibrary.Cudd_ReadCacheSlots(dd),
+				BigcuddLibrary.Cudd_ReadCacheLookUps(dd),
+				BigcuddLibrary.Cudd_ReadCacheHits(dd),
+				BigcuddLibrary.Cudd_ReadGarbageCollections(dd),
+				BigcuddLibrary.Cudd_ReadGarbageCollectionTime(dd),
+				BigcuddLibrary.Cudd_ReadReorderings(dd),
+				BigcuddLibrary.Cudd_ReadReorderingTime(dd));
+	}
+
+	public ReorderingStats getReorderingStats() {
+		reorderingStats.recordTotals(BigcuddLibrary.Cudd_ReadReorderings(dd),
+				BigcuddLibrary.Cudd_ReadReorderingTime(dd));
+		return reorderingStats;
 	}
 
 	/**
@@ -103,6 +210,25 @@ public class JADD {
 		BigcuddLibrary.Cudd_ShuffleHeap(dd, Pointer.pointerToInts(permutationVector));
 	}
 
+	/**
+	 * Declares every variable in {@code orderedVariables} (if not yet known)
+	 * and places them, in this order, on top of any other variable.
+	 * Meant to be called before any ADD is built, so that no reordering
+	 * work is wasted on existing nodes.
+	 * @param orderedVariables
+	 */
+	public void setInitialVariableOrder(List<String> orderedVariables) {
+		for (String variable : orderedVariables) {
+			getVariable(variable);
+		}
+		try {
+			setVariableOrder(getNewVariableOrder(orderedVariables).toArray(new String[0]));
+		} catch (UnrecognizedVariableException e) {
+			// Cannot happen: all variables have just been declared.
+			e.printStackTrace();
+		}
+	}
+
 	public void dumpDot(String[] functionNames, ADD[] functions, String fileName) {
 		Pointer<?> output = CUtils.fopen(fileName, CUtils.ACCESS_WRITE);
 
@@ -253,7 +379,10 @@ public class JADD {
 	}
 
 	public void writeVariableOrder(String fileName) {
-		List<String> variables = getVariableOrder();
+		writeVariableOrder(getVariableOrder(), fileName);
+	}
+
+	public void writeVariableOrder(List<String> variables, String fileName) {
 		try {
 			FileWriter writer = new FileWriter(fileName);
 			for(String variable : variables) {
@@ -0,0 +1,232 @@
+package jadd;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+import bigcudd.BigcuddLibrary;
+
+/**
+ * Sizing of a {@link JADD}'s underlying CUDD manager: initial unique table
+ * slots (per variable), initial computed table (cache) slots, memory cap,
+ * the number of unique table slots up to which CUDD grows its tables rather
+ * than collecting garbage (loose-up-to), and the cap on cache growth.
+ *
+ * CUDD has no direct knob for garbage collection: it collects garbage once
+ * dead nodes exceed a fraction of the unique table, which is larger below
+ * the loose-up-to limit. Thus, the latter is the garbage collection threshold.
+ *
+ * Zero means "CUDD's default" for every parameter. Defaults for the last two
+ * are derived by CUDD itself from the memory cap.
+ */
+public class ManagerConfig {
+
+    /**
+     * CUDD's own defaults, i.e., the behavior prior to manager configurations.
+     */
+    public static final ManagerConfig DEFAULT = new ManagerConfig(0, 0, 0, 0, 0);
+
+    // Sizes of a DdNode and of a DdCache entry on 64-bit platforms.
+    private static final int NODE_BYTES = 32;
+    private static final int CACHE_ENTRY_BYTES = 32;
+    // Fractions of the memory cap CUDD itself uses for deriving loose-up-to
+    // and the maximum cache size (DD_MAX_LOOSE_FRACTION and DD_MAX_CACHE_FRACTION).
+    private static final int LOOSE_FRACTION = 5;
+    private static final int CACHE_FRACTION = 4;
+    // Rough number of ADD nodes expected per RDG node and variable.
+    private static final int NODES_PER_RDG_NODE_AND_VARIABLE = 64;
+    // The computed table grows on its own (up to the maximum cache size)
+    // when its hit rate is high, so it starts at a fraction of the nodes.
+    private static final int NODES_PER_CACHE_SLOT = 4;
+    private static final int MAX_UNIQUE_SLOTS = 1 << 20;
+    private static final int MAX_CACHE_SLOTS = 1 << 22;
+
+    private final int uniqueSlots;
+    private final int cacheSlots;
+    private final long maxMemory;
+    private final int looseUpTo;
+    private final int maxCacheHard;
+
+    /**
+     * @param uniqueSlots Initial number of slots of each variable's subtable
+     *          in the unique table.
+     * @param cacheSlots Initial number of slots of the computed table.
+     * @param maxMemory Target maximum memory for the manager (bytes).
+     * @param looseUpTo Number of unique table slots up to which tables grow
+     *          instead of garbage being collected.
+     * @param maxCacheHard Number of slots beyond which the computed table
+     *          does not grow.
+     */
+    public ManagerConfig(int uniqueSlots, int cacheSlots, long maxMemory, int looseUpTo, int maxCacheHard) {
+        if (uniqueSlots < 0 || cacheSlots < 0 || maxMemory < 0 || looseUpTo < 0 || maxCacheHard < 0) {
+            throw new IllegalArgumentException("CUDD manager parameters must not be negative.");
+        }
+        this.uniqueSlots = uniqueSlots;
+        this.cacheSlots = cacheSlots;
+        this.maxMemory = maxMemory;
+        this.looseUpTo = looseUpTo;
+        this.maxCacheHard = maxCacheHard;
+    }
+
+    /**
+     * Derives a configuration from the size of the problem and from the
+     * physical memory not reserved for the JVM heap.
+     *
+     * @param variables Number of variables (e.g., features) to be encoded.
+     * @param rdgNodes Number of RDG nodes whose reliability functions are
+     *          to be computed.
+     */
+    public static ManagerConfig autoTune(int variables, int rdgNodes) {
+        long physicalMemory = getPhysicalMemory();
+        long availableMemory = (physicalMemory > 0) ? Math.max(physicalMemory - Runtime.getRuntime().maxMemory(), 0) : 0;
+        return autoTune(variables, rdgNodes, availableMemory);
+    }
+
+    /**
+     * Derives a configuration as follows:
+     *  - the memory cap is 3/4 of the available memory (none if unknown),
+     *    leaving room for the model checker processes;
+     *  - the rest is derived as in {@link #autoTuneWithMaxMemory(int, int, long)}.
+     *
+     * @param variables Number of variables (e.g., features) to be encoded.
+     * @param rdgNodes Number of RDG nodes whose reliability functions are
+     *          to be computed.
+     * @param availableMemory Memory available to the manager (bytes),
+     *          or 0 if unknown.
+     */
+    public static ManagerConfig autoTune(int variables, int rdgNodes, long availableMemory) {
+        return autoTuneWithMaxMemory(variables, rdgNodes, availableMemory / 4 * 3);
+    }
+
+    /**
+     * Derives a configuration under a given memory cap as follows:
+     *  - loose-up-to and maximum cache size follow from the cap the same
+     *    way CUDD derives them;
+     *  - the expected number of live nodes grows with the number of
+     *    variables and of RDG nodes, bounded by what fits under the cap;
+     *  - initial unique slots spread the expected nodes over the variables'
+     *    subtables, and the initial cache has a slot per few expected nodes.
+     * Table sizes are powers of two, and never below CUDD's defaults
+     * unless the maximum cache size is smaller.
+     *
+     * @param variables Number of variables (e.g., features) to be encoded.
+     * @param rdgNodes Number of RDG nodes whose reliability functions are
+     *          to be computed.
+     * @param maxMemory Target maximum memory for the manager (bytes),
+     *          or 0 for none.
+     */
+    public static ManagerConfig autoTuneWithMaxMemory(int variables, int rdgNodes, long maxMemory) {
+        long expectedNodes = (long) Math.max(variables, 1) * Math.max(rdgNodes, 1) * NODES_PER_RDG_NODE_AND_VARIABLE;
+        int looseUpTo = deriveLooseUpTo(maxMemory);
+        int maxCacheHard = deriveMaxCacheHard(maxMemory);
+        if (looseUpTo > 0) {
+            expectedNodes = Math.min(expectedNodes, looseUpTo);
+        }
+        int uniqueSlots = clampToPowerOfTwo(expectedNodes / Math.max(variables, 1),
+                                            BigcuddLibrary.CUDD_UNIQUE_SLOTS,
+                                            MAX_UNIQUE_SLOTS);
+        int cacheSlots = clampToPowerOfTwo(expectedNodes / NODES_PER_CACHE_SLOT,
+                                           BigcuddLibrary.CUDD_CACHE_SLOTS,
+                                           (maxCacheHard > 0) ? Math.min(MAX_CACHE_SLOTS, maxCacheHard) : MAX_CACHE_SLOTS);
+        return new ManagerConfig(uniqueSlots, cacheSlots, maxMemory, looseUpTo, maxCacheHard);
+    }
+
+    /**
+     * @return a configuration with the parameters which are set (non-zero)
+     *      in {@code overrides} replacing those of this one. If the memory
+     *      cap is overridden, loose-up-to and maximum cache size derived
+     *      from this configuration's cap are derived anew from the overriding
+     *      one (unless overridden as well), and the initial cache is shrunk
+     *      to fit the resulting maximum cache size.
+     */
+    public ManagerConfig overriddenBy(ManagerConfig overrides) {
+        int newLooseUpTo = looseUpTo;
+        int newMaxCacheHard = maxCacheHard;
+        int newCacheSlots = cacheSlots;
+        if (overrides.maxMemory > 0 && overrides.maxMemory != maxMemory) {
+            // Zero means CUDD derives them from the cap on its own.
+            if (looseUpTo > 0) {
+                newLooseUpTo = deriveLooseUpTo(overrides.maxMemory);
+            }
+            if (maxCacheHard > 0) {
+                newMaxCacheHard = deriveMaxCacheHard(overrides.maxMemory);
+            }
+        }
+        if (overrides.looseUpTo > 0) {
+            newLooseUpTo = overrides.looseUpTo;
+        }
+        if (overrides.maxCacheHard > 0) {
+            newMaxCacheHard = overrides.maxCacheHard;
+        }
+        if (overrides.cacheSlots > 0) {
+            newCacheSlots = overrides.cacheSlots;
+        } else if (cacheSlots > 0 && newMaxCacheHard > 0) {
+            newCacheSlots = clampToPowerOfTwo(cacheSlots, 1, newMaxCacheHard);
+        }
+        return new ManagerConfig((overrides.uniqueSlots > 0) ? overrides.uniqueSlots : uniqueSlots,
+                                 newCacheSlots,
+                                 (overrides.maxMemory > 0) ? overrides.maxMemory : maxMemory,
+                                 newLooseUpTo,
+                                 newMaxCacheHard);
+    }
+
+    public int getUniqueSlots() {
+        return uniqueSlots;
+    }
+
+    public int getCacheSlots() {
+        return cacheSlots;
+    }
+
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    public int getLooseUpTo() {
+        return looseUpTo;
+    }
+
+    public int getMaxCacheHard() {
+        return maxCacheHard;
+    }
+
+    @Override
+    public String toString() {
+        return "unique slots: " + format(uniqueSlots)
+                + " | cache slots: " + format(cacheSlots)
+                + " | max memory: " + ((maxMemory > 0) ? maxMemory/(1024*1024) + " MB" : "default")
+                + " | loose up to: " + format(looseUpTo)
+                + " | max cache: " + format(maxCacheHard);
+    }
+
+    private static String format(int parameter) {
+        return (parameter > 0) ? String.valueOf(parameter) : "default";
+    }
+
+    private static int deriveLooseUpTo(long maxMemory) {
+        return (int) Math.min(maxMemory / NODE_BYTES / LOOSE_FRACTION, Integer.MAX_VALUE);
+    }
+
+    private static int deriveMaxCacheHard(long maxMemory) {
+        return (int) Math.min(maxMemory / CACHE_ENTRY_BYTES / CACHE_FRACTION, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Largest power of two not above {@code value} clamped to [min, max].
+     * The maximum wins over the minimum, so that the result never exceeds
+     * a hard limit (e.g., the maximum cache size under a small memory cap).
+     */
+    private static int clampToPowerOfTwo(long value, int min, int max) {
+        long clamped = Math.min(Math.max(value, min), max);
+        return (int) Long.highestOneBit(Math.max(clamped, 1));
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long getPhysicalMemory() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getTotalPhysicalMemorySize();
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,116 @@
+package jadd;
+
+/**
+ * Snapshot of the counters of a {@link JADD}'s underlying CUDD manager.
+ *
+ * Only plain counters are read (i.e., nothing that CUDD computes by
+ * traversing its tables), so snapshots can be taken from a thread other
+ * than the one using the manager. In that case, counters may be slightly
+ * inconsistent with one another, which is fine for telemetry.
+ */
+public class ManagerStats {
+
+    private final long memoryInUse;
+    private final long maxMemory;
+    private final int keys;
+    private final int dead;
+    private final int slots;
+    private final int cacheSlots;
+    private final double cacheLookUps;
+    private final double cacheHits;
+    private final int garbageCollections;
+    private final long garbageCollectionTime;
+    private final int reorderings;
+    private final long reorderingTime;
+
+    ManagerStats(long memoryInUse, long maxMemory, int keys, int dead, int slots, int cacheSlots,
+                 double cacheLookUps, double cacheHits, int garbageCollections, long garbageCollectionTime,
+                 int reorderings, long reorderingTime) {
+        this.memoryInUse = memoryInUse;
+        this.maxMemory = maxMemory;
+        this.keys = keys;
+        this.dead = dead;
+        this.slots = slots;
+        this.cacheSlots = cacheSlots;
+        this.cacheLookUps = cacheLookUps;
+        this.cacheHits = cacheHits;
+        this.garbageCollections = garbageCollections;
+        this.garbageCollectionTime = garbageCollectionTime;
+        this.reorderings = reorderings;
+        this.reorderingTime = reorderingTime;
+    }
+
+    /**
+     * Memory allocated by the manager (bytes).
+     */
+    public long getMemoryInUse() {
+        return memoryInUse;
+    }
+
+    /**
+     * Target maximum memory of the manager (bytes).
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * Nodes in the unique table which are still referenced.
+     */
+    public long getLiveNodes() {
+        return keys - dead;
+    }
+
+    /**
+     * Unreferenced nodes still in the unique table, awaiting garbage collection.
+     */
+    public int getDeadNodes() {
+        return dead;
+    }
+
+    /**
+     * Number of nodes in the unique table, either live or dead.
+     */
+    public int getUniqueTableKeys() {
+        return keys;
+    }
+
+    public int getUniqueTableSlots() {
+        return slots;
+    }
+
+    public int getCacheSlots() {
+        return cacheSlots;
+    }
+
+    public double getCacheLookUps() {
+        return cacheLookUps;
+    }
+
+    public double getCacheHits() {
+        return cacheHits;
+    }
+
+    public int getGarbageCollections() {
+        return garbageCollections;
+    }
+
+    /**
+     * Time spent in garbage collection (ms).
+     */
+    public long getGarbageCollectionTime() {
+        return garbageCollectionTime;
+    }
+
+    public int getReorderings() {
+        return reorderings;
+    }
+
+    /**
+     * Time spent in reorderings, either explicit or dynamic (ms).
+     */
+    public long getReorderingTime() {
+        return reorderingTime;
+    }
+
+}
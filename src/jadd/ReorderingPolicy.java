@@ -0,0 +1,104 @@
+package jadd;
+
+import org.bridj.IntValuedEnum;
+
+import bigcudd.BigcuddLibrary.Cudd_ReorderingType;
+
+/**
+ * Describes when and how a {@link JADD} manager reorders its variables.
+ *
+ * Reordering may happen:
+ *  - explicitly, whenever {@link JADD#reorderVariables()} is called;
+ *  - dynamically, triggered by CUDD itself once the number of nodes
+ *    reaches a threshold (see {@code dynamicThreshold}); and
+ *  - on growth, whenever {@link JADD#reorderIfGrown()} finds that the
+ *    number of live nodes has grown by more than {@code growthFactor}
+ *    since the last reordering.
+ *
+ * @author thiago
+ *
+ */
+public class ReorderingPolicy {
+
+    /**
+     * Reordering heuristics offered by CUDD.
+     */
+    public enum Heuristic {
+        NONE(Cudd_ReorderingType.CUDD_REORDER_NONE),
+        RANDOM(Cudd_ReorderingType.CUDD_REORDER_RANDOM),
+        SIFT(Cudd_ReorderingType.CUDD_REORDER_SIFT),
+        SIFT_CONVERGE(Cudd_ReorderingType.CUDD_REORDER_SIFT_CONVERGE),
+        SYMM_SIFT(Cudd_ReorderingType.CUDD_REORDER_SYMM_SIFT),
+        SYMM_SIFT_CONV(Cudd_ReorderingType.CUDD_REORDER_SYMM_SIFT_CONV),
+        WINDOW2(Cudd_ReorderingType.CUDD_REORDER_WINDOW2),
+        WINDOW3(Cudd_ReorderingType.CUDD_REORDER_WINDOW3),
+        WINDOW4(Cudd_ReorderingType.CUDD_REORDER_WINDOW4),
+        GROUP_SIFT(Cudd_ReorderingType.CUDD_REORDER_GROUP_SIFT),
+        LAZY_SIFT(Cudd_ReorderingType.CUDD_REORDER_LAZY_SIFT),
+        LINEAR(Cudd_ReorderingType.CUDD_REORDER_LINEAR),
+        ANNEALING(Cudd_ReorderingType.CUDD_REORDER_ANNEALING),
+        GENETIC(Cudd_ReorderingType.CUDD_REORDER_GENETIC),
+        EXACT(Cudd_ReorderingType.CUDD_REORDER_EXACT);
+
+        private final Cudd_ReorderingType cuddType;
+
+        Heuristic(Cudd_ReorderingType cuddType) {
+            this.cuddType = cuddType;
+        }
+
+        IntValuedEnum<Cudd_ReorderingType> toCudd() {
+            return cuddType;
+        }
+    }
+
+    /**
+     * The behavior prior to the introduction of reordering policies:
+     * symmetric sifting only when explicitly requested.
+     */
+    public static final ReorderingPolicy DEFAULT = new ReorderingPolicy(Heuristic.SYMM_SIFT, false, 0, 0);
+
+    private final Heuristic heuristic;
+    private final boolean dynamic;
+    private final int dynamicThreshold;
+    private final double growthFactor;
+
+    /**
+     * @param heuristic Heuristic used for every kind of reordering.
+     * @param dynamic Whether CUDD should reorder variables on its own.
+     * @param dynamicThreshold Number of nodes which triggers the first dynamic
+     *          reordering (0 keeps CUDD's default).
+     * @param growthFactor Growth in the number of live nodes (relative to the
+     *          last reordering) above which {@link JADD#reorderIfGrown()}
+     *          reorders variables (0 disables growth-triggered reordering).
+     */
+    public ReorderingPolicy(Heuristic heuristic, boolean dynamic, int dynamicThreshold, double growthFactor) {
+        if (growthFactor != 0 && growthFactor <= 1) {
+            throw new IllegalArgumentException("Growth factor must be greater than 1 (or 0 to disable it).");
+        }
+        this.heuristic = heuristic;
+        this.dynamic = dynamic;
+        this.dynamicThreshold = dynamicThreshold;
+        this.growthFactor = growthFactor;
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    public boolean isDynamic() {
+        return dynamic && heuristic != Heuristic.NONE;
+    }
+
+    public int getDynamicThreshold() {
+        return dynamicThreshold;
+    }
+
+    public double getGrowthFactor() {
+        return growthFactor;
+    }
+
+    public boolean isGrowthTriggered() {
+        return growthFactor > 1 && heuristic != Heuristic.NONE;
+    }
+
+}
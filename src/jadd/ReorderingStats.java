@@ -0,0 +1,73 @@
+package jadd;
+
+import java.io.PrintStream;
+
+/**
+ * Statistics on variable reorderings performed by a {@link JADD} manager.
+ *
+ * Node counts refer to live (referenced) nodes in the whole manager.
+ *
+ * @author thiago
+ *
+ */
+public class ReorderingStats {
+
+    private int explicitReorderings = 0;
+    private long explicitReorderingTime = 0;
+    private long nodesBefore = 0;
+    private long nodesAfter = 0;
+
+    private int totalReorderings = 0;
+    private long totalReorderingTime = 0;
+
+    synchronized void recordExplicit(long elapsedMillis, long before, long after) {
+        explicitReorderings++;
+        explicitReorderingTime += elapsedMillis;
+        nodesBefore += before;
+        nodesAfter += after;
+    }
+
+    synchronized void recordTotals(int reorderings, long reorderingTimeMillis) {
+        totalReorderings = reorderings;
+        totalReorderingTime = reorderingTimeMillis;
+    }
+
+    /**
+     * Number of reorderings requested through the {@link JADD} API.
+     */
+    public synchronized int getExplicitReorderings() {
+        return explicitReorderings;
+    }
+
+    /**
+     * Number of reorderings, either explicit or dynamic.
+     */
+    public synchronized int getTotalReorderings() {
+        return totalReorderings;
+    }
+
+    /**
+     * Time spent in reorderings, either explicit or dynamic (ms).
+     */
+    public synchronized long getTotalReorderingTime() {
+        return totalReorderingTime;
+    }
+
+    /**
+     * Number of live nodes removed by explicit reorderings.
+     */
+    public synchronized long getNodeReduction() {
+        return nodesBefore - nodesAfter;
+    }
+
+    public synchronized void printStats(PrintStream out) {
+        out.println("Reorderings (explicit / total): " + explicitReorderings + " / " + totalReorderings);
+        out.println("Explicit reordering time: " + explicitReorderingTime + " ms");
+        out.println("Total reordering time: " + totalReorderingTime + " ms");
+        out.println("Live nodes before / after explicit reorderings: " + nodesBefore + " / " + nodesAfter);
+        if (nodesBefore > 0) {
+            out.println("Node reduction by explicit reorderings: " + 100*(nodesBefore - nodesAfter)/(float)nodesBefore + "%");
+        }
+    }
+
+}
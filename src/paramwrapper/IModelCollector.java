@@ -5,7 +5,20 @@ import java.io.PrintStream;
 public interface IModelCollector {
 
     public void collectModel(int variables, int states);
-    public void collectModelCheckingTime(long elapsedTimeNanos);
+    /**
+     * Collects the time of a model checker invocation on a model of
+     * the given size.
+     *
+     * @param backend Name of the model checker which was invoked.
+     */
+    public void collectModelCheckingTime(String backend, int variables, int states, long elapsedTimeNanos);
+    /**
+     * Collects the reduction of a model prior to model checking.
+     *
+     * @param nodeId Identifier of the RDG node whose model was reduced,
+     *          or null if the model was derived (e.g., a 150% model or a product).
+     */
+    public void collectModelReduction(String nodeId, int originalStates, int reducedStates);
     public void printStats(PrintStream out);
 
 }
@@ -0,0 +1,164 @@
+package paramwrapper;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of long-lived workers which run model-checker invocations.
+ *
+ * Every invocation of the external model checker is queued and picked up by
+ * one of a fixed number of worker threads, so that no more than {@code workers}
+ * checker processes run at any given time, regardless of how many analysis
+ * threads are asking for reliability expressions. Whenever the request queue
+ * is full, submitters block until a slot is freed (backpressure).
+ *
+ * @author thiago
+ *
+ */
+public class ModelCheckerPool {
+    private static final Logger LOGGER = Logger.getLogger(ModelCheckerPool.class.getName());
+
+    /**
+     * Timeout value meaning "wait for as long as the model checker needs".
+     */
+    public static final long NO_TIMEOUT = 0;
+
+    private ThreadPoolExecutor executor;
+    private long timeoutSeconds;
+
+    /**
+     * Creates a pool with as many workers as there are available processors
+     * and no timeout.
+     */
+    public ModelCheckerPool() {
+        this(Runtime.getRuntime().availableProcessors(), NO_TIMEOUT);
+    }
+
+    /**
+     * @param workers Maximum number of concurrent model-checker processes.
+     * @param timeoutSeconds Maximum wall-clock time allowed for a single
+     *          invocation ({@link #NO_TIMEOUT} to disable).
+     */
+    public ModelCheckerPool(int workers, long timeoutSeconds) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("There must be at least one model-checker worker.");
+        }
+        this.timeoutSeconds = timeoutSeconds;
+        BlockingQueue<Runnable> requests = new ArrayBlockingQueue<Runnable>(2 * workers);
+        this.executor = new ThreadPoolExecutor(workers,
+                                               workers,
+                                               0L,
+                                               TimeUnit.MILLISECONDS,
+                                               requests,
+                                               new WorkerThreadFactory(),
+                                               new BlockingSubmission());
+        this.executor.prestartAllCoreThreads();
+    }
+
+    public int getWorkers() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public long getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    /**
+     * Runs the given command line in one of the workers and waits for it
+     * to finish.
+     *
+     * @param commandLine Model-checker command line.
+     * @return the exit code of the model-checker process.
+     * @throws IOException if the process could not be started or was interrupted.
+     * @throws ModelCheckingException if the process exceeded the configured timeout.
+     */
+    public int execute(String commandLine) throws IOException {
+        Future<Integer> exitCode = executor.submit(() -> run(commandLine));
+        try {
+            return exitCode.get();
+        } catch (InterruptedException e) {
+            exitCode.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the model checker.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof ModelCheckingException) {
+                throw (ModelCheckingException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Stops accepting requests. Requests already queued are still served.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private int run(String commandLine) throws IOException, InterruptedException {
+        LOGGER.fine(commandLine);
+        Process program = Runtime.getRuntime().exec(commandLine);
+        try {
+            if (timeoutSeconds == NO_TIMEOUT) {
+                return program.waitFor();
+            }
+            if (!program.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                throw new ModelCheckingException("Model checker timed out after " + timeoutSeconds + " s: " + commandLine);
+            }
+            return program.exitValue();
+        } finally {
+            if (program.isAlive()) {
+                program.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Blocks the submitting thread until there is room in the request queue.
+     */
+    private static class BlockingSubmission implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable request, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Model-checker pool has been shut down.");
+            }
+            try {
+                executor.getQueue().put(request);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(e);
+            }
+        }
+
+    }
+
+    /**
+     * Workers are daemons, so that an idle pool never keeps the JVM alive.
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread worker = new Thread(runnable, "model-checker-" + count.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package paramwrapper;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for an invocation of the parametric model checker on the
+ * FDTMC of an RDG node.
+ *
+ * Its duration includes waiting for a free model checker process.
+ */
+@Name("reana.ModelChecking")
+@Label("Model Checking")
+@Category({"ReAna", "Analysis"})
+@Description("Parametric model checking of an FDTMC")
+class ModelCheckingEvent extends Event {
+
+    @Label("Model")
+    @Description("Variable name of the FDTMC, i.e., the id of its RDG node")
+    String model;
+
+    @Label("Backend")
+    String backend;
+
+    @Label("States")
+    int states;
+
+    @Label("Parameters")
+    int parameters;
+
+    @Label("Formula Length")
+    int formulaLength;
+
+}
@@ -0,0 +1,19 @@
+package paramwrapper;
+
+/**
+ * Signals that the model checker failed to yield a reliability expression,
+ * e.g., because it exited abnormally or exceeded the configured timeout.
+ */
+public class ModelCheckingException extends RuntimeException {
+
+    private static final long serialVersionUID = -4409627351902866271L;
+
+    public ModelCheckingException(String message) {
+        super(message);
+    }
+
+    public ModelCheckingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
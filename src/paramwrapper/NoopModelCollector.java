@@ -10,7 +10,12 @@ public class NoopModelCollector implements IModelCollector {
     }
 
     @Override
-    public void collectModelCheckingTime(long elapsedTime) {
+    public void collectModelCheckingTime(String backend, int variables, int states, long elapsedTime) {
+        // NO-OP
+    }
+
+    @Override
+    public void collectModelReduction(String nodeId, int originalStates, int reducedStates) {
         // NO-OP
     }
 
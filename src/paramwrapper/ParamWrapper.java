@@ -14,6 +14,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import fdtmc.FDTMC;
+import fdtmc.FDTMCReducer;
 
 /**
  * Façade to a PARAM executable.
@@ -27,15 +28,57 @@ public class ParamWrapper implements ParametricModelChecker {
 	private String paramPath;
 	private IModelCollector modelCollector;
 	private boolean usePrism = false;
+	private ModelCheckerPool workerPool;
+	private boolean reduceModels = true;
 
     public ParamWrapper(String paramPath) {
         this(paramPath, new NoopModelCollector());
     }
 
     public ParamWrapper(String paramPath, IModelCollector modelCollector) {
+        this(paramPath, modelCollector, null);
+    }
+
+    /**
+     * @param workerPool Pool of workers which run the model checker, or null
+     *          for a default one (see {@link ModelCheckerPool#ModelCheckerPool()})
+     *          to be created upon the first invocation.
+     */
+    public ParamWrapper(String paramPath, IModelCollector modelCollector, ModelCheckerPool workerPool) {
         this.paramPath = paramPath;
         this.usePrism = paramPath.contains("prism");
         this.modelCollector = modelCollector;
+        this.workerPool = workerPool;
+    }
+
+    /**
+     * Replaces the pool of workers which run the model checker.
+     * The previous pool is shut down.
+     *
+     * @param workerPool
+     */
+    public synchronized void setWorkerPool(ModelCheckerPool workerPool) {
+        if (this.workerPool != null) {
+            this.workerPool.shutdown();
+        }
+        this.workerPool = workerPool;
+    }
+
+    private synchronized ModelCheckerPool getWorkerPool() {
+        if (workerPool == null) {
+            workerPool = new ModelCheckerPool();
+        }
+        return workerPool;
+    }
+
+    /**
+     * Sets whether FDTMCs are reduced (see {@link FDTMCReducer}) before
+     * being model checked. Reduction is enabled by default.
+     *
+     * @param reduceModels
+     */
+    public void setModelReduction(boolean reduceModels) {
+        this.reduceModels = reduceModels;
     }
 
 	public String fdtmcToParam(FDTMC fdtmc) {
@@ -44,8 +87,32 @@ public class ParamWrapper implements ParametricModelChecker {
 		return model.toString();
 	}
 
+	/**
+	 * @throws ModelCheckingException if the model checker exits abnormally
+	 *          or times out.
+	 */
 	@Override
 	public String getReliability(FDTMC fdtmc) {
+	    return getReliability(fdtmc, null);
+	}
+
+	/**
+	 * @param nodeId Identifier of the RDG node whose model is {@code fdtmc},
+	 *          or null for derived models (e.g., 150% models or products),
+	 *          whose reductions only count towards the totals.
+	 * @throws ModelCheckingException if the model checker exits abnormally
+	 *          or times out.
+	 */
+	@Override
+	public String getReliability(FDTMC fdtmc, String nodeId) {
+	    if (reduceModels) {
+	        FDTMC reduced = FDTMCReducer.reduce(fdtmc);
+	        int originalStates = fdtmc.getStates().size();
+	        int reducedStates = reduced.getStates().size();
+	        LOGGER.fine("FDTMC " + fdtmc.getVariableName() + " reduced from " + originalStates + " to " + reducedStates + " states");
+	        modelCollector.collectModelReduction(nodeId, originalStates, reducedStates);
+	        fdtmc = reduced;
+	    }
 	    ParamModel model = new ParamModel(fdtmc);
         modelCollector.collectModel(model.getParametersNumber(), model.getStatesNumber());
 		String modelString = model.toString();
@@ -55,10 +122,12 @@ public class ParamWrapper implements ParametricModelChecker {
 		}
 		String reliabilityProperty = "P=? [ F \"success\" ]";
 
-		return evaluate(modelString, reliabilityProperty, model);
+		return evaluate(fdtmc.getVariableName(), modelString, reliabilityProperty, model);
 	}
 
-	private String evaluate(String modelString, String property, ParamModel model) {
+	private String evaluate(String modelName, String modelString, String property, ParamModel model) {
+	    ModelCheckingEvent event = new ModelCheckingEvent();
+	    event.begin();
 		try {
 		    LOGGER.finer(modelString);
 			File modelFile = File.createTempFile("model", "param");
@@ -92,14 +161,33 @@ public class ParamWrapper implements ParametricModelChecker {
 			                                           resultsFile.getAbsolutePath());
 			}
 			long elapsedTime = System.nanoTime() - startTime;
-            modelCollector.collectModelCheckingTime(elapsedTime);
-			return formula.trim().replaceAll("\\s+", "");
+            modelCollector.collectModelCheckingTime(getBackend(),
+                                                    model.getParametersNumber(),
+                                                    model.getStatesNumber(),
+                                                    elapsedTime);
+			formula = formula.trim().replaceAll("\\s+", "");
+			event.end();
+			if (event.shouldCommit()) {
+			    event.model = modelName;
+			    event.backend = getBackend();
+			    event.states = model.getStatesNumber();
+			    event.parameters = model.getParametersNumber();
+			    event.formulaLength = formula.length();
+			    event.commit();
+			}
+			return formula;
+		} catch (ModelCheckingException e) {
+			throw new ModelCheckingException("Could not model check " + modelName + ": " + e.getMessage(), e);
 		} catch (IOException e) {
 			LOGGER.log(Level.SEVERE, e.toString(), e);
 		}
 		return "";
 	}
 
+	private String getBackend() {
+	    return usePrism ? "prism" : "param";
+	}
+
 	private String invokeParametricModelChecker(String modelPath,
 												String propertyPath,
 												String resultsPath) throws IOException {
@@ -137,14 +225,11 @@ public class ParamWrapper implements ParametricModelChecker {
 	}
 
 	private String invokeAndGetResult(String commandLine, String resultsPath) throws IOException {
-	    LOGGER.fine(commandLine);
-		Process program = Runtime.getRuntime().exec(commandLine);
-		int exitCode = 0;
-		try {
-			exitCode = program.waitFor();
-		} catch (InterruptedException e) {
-			LOGGER.severe("Exit code: " + exitCode);
-			LOGGER.log(Level.SEVERE, e.toString(), e);
+		// Bounded by the number of workers, so that parallel analyses
+		// do not spawn one checker process per FDTMC at once.
+		int exitCode = getWorkerPool().execute(commandLine);
+		if (exitCode != 0) {
+			throw new ModelCheckingException("Model checker exited with code " + exitCode + ": " + commandLine);
 		}
 		List<String> lines = Files.readAllLines(Paths.get(resultsPath), Charset.forName("UTF-8"));
 		lines.removeIf(String::isEmpty);
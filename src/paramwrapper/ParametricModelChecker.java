@@ -21,4 +21,15 @@ public interface ParametricModelChecker {
 	 * @return Formula parameterized on the transition probabilities.
 	 */
 	public String getReliability(FDTMC fdtmc);
+
+	/**
+	 * Same as {@link #getReliability(FDTMC)}, for the FDTMC of an RDG node.
+	 *
+	 * @param fdtmc FDTMC to be evaluated.
+	 * @param nodeId Identifier of the RDG node whose model is {@code fdtmc}.
+	 * @return Formula parameterized on the transition probabilities.
+	 */
+	public default String getReliability(FDTMC fdtmc, String nodeId) {
+		return getReliability(fdtmc);
+	}
 }
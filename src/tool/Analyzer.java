@@ -10,28 +10,34 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import paramwrapper.IModelCollector;
+import paramwrapper.ModelCheckerPool;
 import paramwrapper.ParamWrapper;
-import paramwrapper.ParametricModelChecker;
 import tool.analyzers.IPruningStrategy;
 import tool.analyzers.IReliabilityAnalysisResults;
 import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.PresenceConditionEquivalence;
+import tool.analyzers.buildingblocks.ValueReleaser;
 import tool.analyzers.strategies.FamilyBasedAnalyzer;
 import tool.analyzers.strategies.FamilyProductBasedAnalyzer;
 import tool.analyzers.strategies.FeatureFamilyBasedAnalyzer;
 import tool.analyzers.strategies.FeatureProductBasedAnalyzer;
 import tool.analyzers.strategies.ProductBasedAnalyzer;
 import tool.stats.CollectibleTimers;
+import tool.stats.IAddGrowthProfiler;
 import tool.stats.IFormulaCollector;
+import tool.stats.INodeMetrics;
 import tool.stats.IReuseCollector;
 import tool.stats.ITimeCollector;
 import tool.stats.NoopFormulaCollector;
 import tool.stats.NoopReuseCollector;
 import tool.stats.NoopTimeCollector;
-import expressionsolver.ExpressionSolver;
+import expressionsolver.FeatureModelCompiler;
+import expressionsolver.FeatureModelCompiler.ConjunctionStrategy;
 
 /**
  * Implements the orchestration of analysis tasks.
@@ -44,8 +50,7 @@ import expressionsolver.ExpressionSolver;
 public class Analyzer {
 
     private ADD featureModel;
-    private ParametricModelChecker modelChecker;
-    private ExpressionSolver expressionSolver;
+    private ParamWrapper modelChecker;
     private JADD jadd;
 
     private ConcurrencyStrategy concurrencyStrategy = ConcurrencyStrategy.PARALLEL;
@@ -89,15 +94,38 @@ public class Analyzer {
 
     /**
      * This is where true initialization happens.
+     *
+     * It allows callers to provide an ADD manager which has already been
+     * configured (e.g., with a variable reordering policy).
+     * @param jadd
+     * @param featureModel
+     */
+    public Analyzer(JADD jadd, String featureModel, String paramPath, ITimeCollector timeCollector, IFormulaCollector formulaCollector, IModelCollector modelCollector, IReuseCollector reuseCollector, int i) {
+        this(jadd, featureModel, FeatureModelCompiler.DEFAULT_STRATEGY, paramPath, timeCollector, formulaCollector, modelCollector, reuseCollector, i);
+    }
+
+    /**
      * @param jadd
      * @param featureModel
+     * @param conjunctionStrategy Order in which the feature model's clauses
+     *          are conjoined.
      */
-    private Analyzer(JADD jadd, String featureModel, String paramPath, ITimeCollector timeCollector, IFormulaCollector formulaCollector, IModelCollector modelCollector, IReuseCollector reuseCollector, int i) {
+    public Analyzer(JADD jadd, String featureModel, ConjunctionStrategy conjunctionStrategy, String paramPath, ITimeCollector timeCollector, IFormulaCollector formulaCollector, IModelCollector modelCollector, IReuseCollector reuseCollector, int i) {
+        this(jadd, new FeatureModelCompiler(jadd, conjunctionStrategy).compile(featureModel), paramPath, timeCollector, formulaCollector, modelCollector, reuseCollector, i);
+    }
+
+    /**
+     * Creates an Analyzer for a feature model which has already been
+     * encoded (e.g., from a feature tree) using the provided ADD manager.
+     * @param jadd
+     * @param featureModel 0,1-ADD of the valid configurations.
+     */
+    public Analyzer(JADD jadd, ADD featureModel, String paramPath, ITimeCollector timeCollector, IFormulaCollector formulaCollector, IModelCollector modelCollector, IReuseCollector reuseCollector, int i) {
         this.jadd = jadd;
-        this.expressionSolver = new ExpressionSolver(jadd);
-        this.featureModel = expressionSolver.encodeFormula(featureModel);
+        this.featureModel = featureModel;
         // The feature model contains all used variables, so we expect to
         // be able to generate an optimal ordering right after parsing it.
+        // Whether and how this happens is up to the JADD's reordering policy.
         if (i == 0) {
         	jadd.reorderVariables();
         }
@@ -126,6 +154,7 @@ public class Analyzer {
                                                                this.timeCollector,
                                                                this.formulaCollector);
         this.familyProductBasedAnalyzerImpl = new FamilyProductBasedAnalyzer(this.jadd,
+                                                                             this.featureModel,
                                                                              this.modelChecker,
                                                                              this.timeCollector,
                                                                              this.formulaCollector);
@@ -139,6 +168,18 @@ public class Analyzer {
         return featureModel.getExpandedConfigurations();
     }
 
+    /**
+     * Returns {@code sampleSize} valid configurations drawn uniformly at
+     * random (with replacement) according to the feature model.
+     * @param sampleSize
+     * @param seed Seed for the random number generator, so that samples
+     *          can be reproduced.
+     * @return
+     */
+    public Stream<Collection<String>> getSampledConfigurations(long sampleSize, long seed) {
+        return featureModel.getSampledConfigurations(sampleSize, new Random(seed));
+    }
+
     /**
      * Returns true if and only if {@code configuration} is valid according
      * to the feature model.
@@ -163,10 +204,76 @@ public class Analyzer {
         this.featureFamilyBasedAnalyzerImpl.setPruningStrategy(pruningStrategy);
     }
 
+    /**
+     * Sets the equivalence relation used by family-based and family-product-based
+     * analyses to group presence conditions into variables of the family-wide
+     * reliability expression. The fewer the classes, the fewer the parameters
+     * of the 150% model and the variables to evaluate for each product.
+     *
+     * Defaults to {@code SEMANTIC}.
+     *
+     * @param pcEquivalence
+     */
+    public void setPresenceConditionEquivalence(PresenceConditionEquivalence pcEquivalence) {
+        this.familyBasedAnalyzerImpl.setPresenceConditionEquivalence(pcEquivalence);
+        this.familyProductBasedAnalyzerImpl.setPresenceConditionEquivalence(pcEquivalence);
+    }
+
+    /**
+     * Sets whether FDTMCs are reduced (lumped and compressed) before being
+     * model checked. Reduction is enabled by default.
+     *
+     * @param modelReduction
+     */
+    public void setModelReduction(boolean modelReduction) {
+        this.modelChecker.setModelReduction(modelReduction);
+    }
+
+    /**
+     * Sets the collector of per-node metrics for feature-based analyses
+     * (i.e., feature-family- and feature-product-based ones).
+     *
+     * @param nodeMetrics
+     */
+    public void setNodeMetrics(INodeMetrics nodeMetrics) {
+        this.featureFamilyBasedAnalyzerImpl.setNodeMetrics(nodeMetrics);
+        this.featureProductBasedAnalyzerImpl.setNodeMetrics(nodeMetrics);
+    }
+
+    /**
+     * Sets a profiler of ADD growth for feature-family-based analyses.
+     *
+     * @param growthProfiler
+     */
+    public void setAddGrowthProfiler(IAddGrowthProfiler growthProfiler) {
+        this.featureFamilyBasedAnalyzerImpl.setAddGrowthProfiler(growthProfiler);
+    }
+
+    /**
+     * Sets what to do with the ADD of each RDG node once all nodes which
+     * depend on it have been evaluated (feature-family-based analyses only).
+     *
+     * @param releaser
+     */
+    public void setIntermediateAddReleaser(ValueReleaser<ADD> releaser) {
+        this.featureFamilyBasedAnalyzerImpl.setIntermediateAddReleaser(releaser);
+    }
+
     public void setConcurrencyStrategy(ConcurrencyStrategy concurrencyStrategy) {
         this.concurrencyStrategy = concurrencyStrategy;
     }
 
+    /**
+     * Sets the pool of workers which run the model checker, thus bounding
+     * the number of concurrent model-checker processes.
+     *
+     * @param modelCheckerPool
+     */
+    public void setModelCheckerPool(ModelCheckerPool modelCheckerPool) {
+        this.modelChecker.setWorkerPool(modelCheckerPool);
+        this.featureFamilyBasedAnalyzerImpl.setModelCheckingWorkers(modelCheckerPool.getWorkers());
+    }
+
     /**
      * Evaluates the feature-family-based reliability function of an RDG node, based
      * on the reliabilities of the nodes on which it depends.
@@ -266,6 +373,13 @@ public class Analyzer {
         return this.featureFamilyBasedAnalyzerImpl;
     }
     
+    /**
+     * @return the 0,1-ADD of the feature model.
+     */
+    public ADD getFeatureModel() {
+        return featureModel;
+    }
+
     public JADD getJadd() {
     	return this.jadd;
     }
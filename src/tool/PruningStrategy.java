@@ -8,5 +8,10 @@ public enum PruningStrategy {
     /**
      * Prune by using the whole Feature Model.
      */
-    FM
+    FM,
+    /**
+     * Prune by using the feature model projected onto the variables
+     * of each intermediate result (whole feature model only at the root).
+     */
+    PROJECTED_FM
 }
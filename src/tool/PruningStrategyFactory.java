@@ -3,6 +3,7 @@ package tool;
 import tool.analyzers.FeatureModelPruningStrategy;
 import tool.analyzers.IPruningStrategy;
 import tool.analyzers.NoPruningStrategy;
+import tool.analyzers.ProjectedFeatureModelPruningStrategy;
 
 public class PruningStrategyFactory {
 
@@ -14,6 +15,8 @@ public class PruningStrategyFactory {
         switch (strategySelection) {
         case NONE:
             return new NoPruningStrategy();
+        case PROJECTED_FM:
+            return new ProjectedFeatureModelPruningStrategy();
         case FM:
         default:
             return new FeatureModelPruningStrategy();
@@ -0,0 +1,112 @@
+package tool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of the RDG nodes created while transforming a set of behavioral
+ * models (i.e., an RDG under construction).
+ *
+ * Each thread creates nodes in its current context, which is a JVM-wide
+ * default one unless {@link #setCurrent(RDGContext)} is called. Thus,
+ * analyses which run concurrently (or one after the other) in the same JVM
+ * do not have to share node ids or similar nodes.
+ *
+ * Similar nodes (see {@link RDGNode#equals(Object)}) are looked up among
+ * the nodes with the same presence condition only, instead of among every
+ * known node. Presence conditions are immutable, so nodes are indexed as
+ * soon as they are registered, whereas FDTMCs and dependencies are only
+ * compared at lookup time (they may still change after registration).
+ *
+ * @author thiago
+ *
+ */
+public class RDGContext {
+
+    private static final RDGContext DEFAULT_CONTEXT = new RDGContext();
+    private static final ThreadLocal<RDGContext> CURRENT_CONTEXT = new ThreadLocal<RDGContext>();
+
+    private Map<String, RDGNode> nodesById = new HashMap<String, RDGNode>();
+    private List<RDGNode> nodesInCreationOrder = new ArrayList<RDGNode>();
+    /**
+     * Nodes indexed by presence condition, in creation order.
+     */
+    private Map<String, List<RDGNode>> nodesByPresenceCondition = new HashMap<String, List<RDGNode>>();
+    private int lastNodeIndex = 0;
+
+    /**
+     * @return the context of the current thread, or the default one if
+     *      none was set.
+     */
+    public static RDGContext getCurrent() {
+        RDGContext context = CURRENT_CONTEXT.get();
+        return (context != null) ? context : DEFAULT_CONTEXT;
+    }
+
+    /**
+     * Sets the context in which the current thread creates and looks up
+     * RDG nodes. A {@code null} context resets the thread to the default one.
+     *
+     * @param context
+     */
+    public static void setCurrent(RDGContext context) {
+        if (context == null) {
+            CURRENT_CONTEXT.remove();
+        } else {
+            CURRENT_CONTEXT.set(context);
+        }
+    }
+
+    synchronized void register(RDGNode node) {
+        nodesById.put(node.getId(), node);
+        nodesInCreationOrder.add(node);
+        nodesByPresenceCondition.computeIfAbsent(node.getPresenceCondition(),
+                                                 presenceCondition -> new ArrayList<RDGNode>()).add(node);
+    }
+
+    public synchronized RDGNode getById(String id) {
+        return nodesById.get(id);
+    }
+
+    public synchronized String getNextId() {
+        return "n" + lastNodeIndex++;
+    }
+
+    /**
+     * @return the nodes created in this context, in creation order.
+     */
+    public synchronized List<RDGNode> getNodes() {
+        return new ArrayList<RDGNode>(nodesInCreationOrder);
+    }
+
+    /**
+     * Returns the first RDG node (in creation order) which is similar to
+     * the one provided, i.e., for which equals() returns true.
+     *
+     * @param target
+     * @return a similar RDG node or null in case there is none.
+     */
+    public synchronized RDGNode getSimilarNode(RDGNode target) {
+        List<RDGNode> candidates = nodesByPresenceCondition.get(target.getPresenceCondition());
+        if (candidates != null) {
+            for (RDGNode candidate: candidates) {
+                if (candidate != target && candidate.equals(target)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Forgets all nodes created in this context.
+     */
+    public synchronized void clear() {
+        nodesById.clear();
+        nodesInCreationOrder.clear();
+        nodesByPresenceCondition.clear();
+    }
+
+}
@@ -13,12 +13,6 @@ import fdtmc.FDTMC;
 
 public class RDGNode {
 
-	//This reference is used to store all the RDGnodes created during the evaluation
-	private static Map<String, RDGNode> rdgNodes = new HashMap<String, RDGNode>();
-	private static List<RDGNode> nodesInCreationOrder = new LinkedList<RDGNode>();
-
-    private static int lastNodeIndex = 0;
-
 	// Node identifier
 	private String id;
 	//This attribute is used to store the FDTMC for the RDG node.
@@ -41,20 +35,35 @@ public class RDGNode {
 	 * be immutable, so there must be no setters for them. Hence, they
 	 * must be set at construction-time.
 	 *
+	 * The node is registered in the current thread's {@link RDGContext}.
+	 *
 	 * @param id Node's identifier. It is preferably a valid Java identifier.
 	 * @param presenceCondition Boolean expression over features (using Java operators).
 	 * @param fdtmc Stochastic model of the piece of behavioral model represented by
 	 *             this node.
 	 */
 	public RDGNode(String id, String presenceCondition, FDTMC fdtmc) {
+	    this(RDGContext.getCurrent(), id, presenceCondition, fdtmc);
+	}
+
+	/**
+	 * Same as {@link #RDGNode(String, String, FDTMC)}, but the node is
+	 * registered in the given {@link RDGContext} instead.
+	 *
+	 * @param context Context in which the node is registered.
+	 * @param id Node's identifier. It is preferably a valid Java identifier.
+	 * @param presenceCondition Boolean expression over features (using Java operators).
+	 * @param fdtmc Stochastic model of the piece of behavioral model represented by
+	 *             this node.
+	 */
+	public RDGNode(RDGContext context, String id, String presenceCondition, FDTMC fdtmc) {
 	    this.id = id;
 	    this.presenceCondition = presenceCondition;
 	    this.fdtmc = fdtmc;
 		this.dependencies = new HashSet<RDGNode>();
 		this.height = 0;
 
-		rdgNodes.put(id, this);
-		nodesInCreationOrder.add(this);
+		context.register(this);
 	}
 
     public FDTMC getFDTMC() {
@@ -88,11 +97,11 @@ public class RDGNode {
     }
 
     public static RDGNode getById(String id) {
-        return rdgNodes.get(id);
+        return RDGContext.getCurrent().getById(id);
     }
 
     public static String getNextId() {
-        return "n" + lastNodeIndex++;
+        return RDGContext.getCurrent().getNextId();
     }
 
     /**
@@ -224,20 +233,16 @@ public class RDGNode {
     }
 
     /**
-     * Returns the first RDG node (in crescent order of creation time) which is similar
-     * to the one provided.
+     * Returns the first RDG node (in order of creation) of the current context
+     * which is similar to the one provided.
      *
      * A similar RDG node is one for which equals() returns true.
+     * @see RDGContext#getSimilarNode(RDGNode)
      * @param rdgNode
      * @return a similar RDG node or null in case there is none.
      */
     public static RDGNode getSimilarNode(RDGNode target) {
-        for (RDGNode candidate: nodesInCreationOrder) {
-            if (candidate != target && candidate.equals(target)) {
-                return candidate;
-            }
-        }
-        return null;
+        return RDGContext.getCurrent().getSimilarNode(target);
     }
 
     /**
@@ -261,7 +266,7 @@ public class RDGNode {
     }
     
     public static void zeraRDG() {
-    	rdgNodes.clear();
+    	RDGContext.getCurrent().clear();
     }
 
 }
@@ -0,0 +1,27 @@
+package tool;
+
+/**
+ * Heuristics for the initial order of ADD variables, computed from the
+ * structure of the feature model (and of the RDG's presence conditions)
+ * before any ADD is built.
+ */
+public enum VariableOrdering {
+    /**
+     * Keep the order in which variables are first parsed.
+     */
+    NONE,
+    /**
+     * Depth-first traversal of the feature tree recovered from the CNF clauses.
+     */
+    DFS,
+    /**
+     * FORCE: iteratively moves variables towards the center of gravity
+     * of the clauses they occur in.
+     */
+    FORCE,
+    /**
+     * Greedily places next the variable which co-occurs the most with
+     * those already placed.
+     */
+    CLUSTERING
+}
@@ -0,0 +1,28 @@
+package tool;
+
+import tool.ordering.ClusteringOrdering;
+import tool.ordering.DepthFirstOrdering;
+import tool.ordering.ForceOrdering;
+import tool.ordering.IVariableOrderingHeuristic;
+
+public class VariableOrderingFactory {
+
+    private VariableOrderingFactory() {
+        // NO-OP
+    }
+
+    public static IVariableOrderingHeuristic createVariableOrdering(VariableOrdering orderingSelection) {
+        switch (orderingSelection) {
+        case DFS:
+            return new DepthFirstOrdering();
+        case FORCE:
+            return new ForceOrdering();
+        case CLUSTERING:
+            return new ClusteringOrdering();
+        case NONE:
+        default:
+            return hypergraph -> hypergraph.getVariables();
+        }
+    }
+
+}
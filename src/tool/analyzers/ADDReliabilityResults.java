@@ -1,6 +1,10 @@
 package tool.analyzers;
 
 import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import tool.UnknownFeatureException;
 import jadd.ADD;
@@ -23,6 +27,69 @@ public class ADDReliabilityResults implements IReliabilityAnalysisResults {
         }
     }
 
+    @Override
+    public double[] getResults(List<String[]> configurations) throws UnknownFeatureException {
+        try {
+            return results.evalAll(configurations);
+        } catch (UnrecognizedVariableException e) {
+            throw new UnknownFeatureException(e.getVariableName());
+        }
+    }
+
+    /**
+     * Up to {@code k} valid configurations with the highest reliabilities,
+     * from best to worst.
+     */
+    public Map<Collection<String>, Double> getBestConfigurations(int k) {
+        return results.getExtremeConfigurations(k, true);
+    }
+
+    /**
+     * Up to {@code k} valid configurations with the lowest reliabilities,
+     * from worst to best.
+     */
+    public Map<Collection<String>, Double> getWorstConfigurations(int k) {
+        return results.getExtremeConfigurations(k, false);
+    }
+
+    public double getMaxReliability() {
+        return results.getMaxValue();
+    }
+
+    public double getMinReliability() {
+        return results.getMinNonZeroValue();
+    }
+
+    /**
+     * Number of valid configurations (i.e., with non-zero reliability).
+     */
+    public double countValidConfigurations() {
+        return results.getNonZeroAssignmentsCount();
+    }
+
+    /**
+     * Number of valid configurations whose reliability is below {@code threshold}.
+     */
+    public double countConfigurationsBelow(double threshold) {
+        ADD atLeastThreshold = results.threshold(threshold);
+        return countValidConfigurations() - atLeastThreshold.getNonZeroAssignmentsCount();
+    }
+
+    /**
+     * Mean reliability over all valid configurations.
+     */
+    public double getMeanReliability() {
+        return results.getNonZeroMean(Collections.emptyMap());
+    }
+
+    /**
+     * Mean reliability over valid configurations, with each feature being
+     * independently present with the given probability (0.5 by default).
+     */
+    public double getMeanReliability(Map<String, Double> featureProbabilities) {
+        return results.getNonZeroMean(featureProbabilities);
+    }
+
     @Override
     public void printAllResults(PrintStream output) {
         results.printEverything(output);
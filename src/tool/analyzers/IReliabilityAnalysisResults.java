@@ -1,6 +1,7 @@
 package tool.analyzers;
 
 import java.io.PrintStream;
+import java.util.List;
 
 import tool.UnknownFeatureException;
 
@@ -17,6 +18,25 @@ public interface IReliabilityAnalysisResults {
      *      unknown feature.
      */
     public Double getResult(String[] configuration) throws UnknownFeatureException;
+
+    /**
+     * Gets the results for many configurations at once. Implementations may
+     * override it when they can do better than one lookup per configuration.
+     *
+     * @param configurations
+     * @return the result for each configuration, in the same order.
+     * @throws UnknownFeatureException in case some configuration relies on an
+     *      unknown feature.
+     */
+    public default double[] getResults(List<String[]> configurations) throws UnknownFeatureException {
+        double[] results = new double[configurations.size()];
+        int i = 0;
+        for (String[] configuration : configurations) {
+            results[i++] = getResult(configuration);
+        }
+        return results;
+    }
+
     public void printAllResults(PrintStream output);
     public int getNumberOfResults();
 
@@ -0,0 +1,52 @@
+package tool.analyzers;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import tool.RDGNode;
+import jadd.ADD;
+
+/**
+ * Pruning strategy which multiplies the reliability mappings by the
+ * projection of the feature model onto their own support, i.e., the
+ * feature model with every other variable existentially abstracted.
+ *
+ * Partial configurations which cannot be extended to a valid configuration
+ * still yield 0, but no variable outside the mapping's support is dragged
+ * into it, so intermediate ADDs stay small. Configurations which are
+ * invalid only due to other variables are left to be pruned at the root,
+ * which must still be multiplied by the whole feature model.
+ *
+ * Projections are cached by support set.
+ *
+ * @author thiago
+ *
+ */
+public class ProjectedFeatureModelPruningStrategy implements IPruningStrategy {
+
+    private ADD projectedFeatureModel;
+    private Map<Set<String>, ADD> projections = new HashMap<Set<String>, ADD>();
+
+    /* (non-Javadoc)
+     * @see tool.IPruningStrategy#pruneInvalidConfigurations(tool.RDGNode, jadd.ADD, jadd.ADD)
+     */
+    @Override
+    public ADD pruneInvalidConfigurations(RDGNode node, ADD reliability, ADD featureModel) {
+        if (featureModel != projectedFeatureModel) {
+            projections.clear();
+            projectedFeatureModel = featureModel;
+        }
+        Set<String> support = reliability.getVariables();
+        ADD projection = projections.computeIfAbsent(support, s -> project(featureModel, s));
+        return projection.times(reliability);
+    }
+
+    private ADD project(ADD featureModel, Set<String> support) {
+        Set<String> abstracted = new HashSet<String>(featureModel.getVariables());
+        abstracted.removeAll(support);
+        return featureModel.existentialAbstraction(abstracted);
+    }
+
+}
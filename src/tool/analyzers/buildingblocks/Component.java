@@ -8,6 +8,8 @@ import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import tool.events.DerivationEvent;
+
 /**
  * Represents a component in an asset base.
  *
@@ -87,17 +89,46 @@ public class Component<T> {
                            .get();
     }
 
-    // TODO Candidate!
-    private static <P, A, V> V deriveSingle(Component<A> component,
+    /**
+     * Derives a single component, assuming the values of all components on
+     * which it depends are already present in {@code derivedModels}. The
+     * derived value is then added to {@code derivedModels} under the id
+     * of {@code component}.
+     */
+    public static <P, A, V> V deriveSingle(Component<A> component,
                                             IsPresent<A, P> isPresent,
                                             DerivationFunction<P, A, V> derive,
                                             Map<String, V> derivedModels) {
-    	long nodeTime = System.currentTimeMillis();
+        DerivationEvent event = new DerivationEvent();
+        event.begin();
         P presence = isPresent.apply(component);
         V derived = derive.apply(presence, component.getAsset(), derivedModels);
         derivedModels.put(component.getId(), derived);
-        nodeTime = System.currentTimeMillis() - nodeTime;
-        System.out.println ("Node "+ component.getId() +" deriveSingle: " + nodeTime);
+        event.end();
+        if (event.shouldCommit()) {
+            event.nodeId = component.getId();
+            event.dependencies = component.getDependencies().size();
+            event.commit();
+        }
+        return derived;
+    }
+
+    /**
+     * Same as {@link #deriveSingle(Component, IsPresent, DerivationFunction, Map)},
+     * notifying {@code listener} (if not null) of the derived value and of
+     * how long the derivation took.
+     */
+    public static <P, A, V> V deriveSingle(Component<A> component,
+                                            IsPresent<A, P> isPresent,
+                                            DerivationFunction<P, A, V> derive,
+                                            Map<String, V> derivedModels,
+                                            DerivationListener<V> listener) {
+        if (listener == null) {
+            return deriveSingle(component, isPresent, derive, derivedModels);
+        }
+        long startTime = System.nanoTime();
+        V derived = deriveSingle(component, isPresent, derive, derivedModels);
+        listener.derived(component.getId(), derived, System.nanoTime() - startTime);
         return derived;
     }
 
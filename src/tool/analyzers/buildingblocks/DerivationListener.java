@@ -0,0 +1,24 @@
+package tool.analyzers.buildingblocks;
+
+/**
+ * Callback for each component derived by {@link Component}'s derivation
+ * functions (e.g., for collecting per-component metrics).
+ *
+ * @param <V> Value (derived) type
+ */
+@FunctionalInterface
+public interface DerivationListener<V> {
+
+    void derived(String id, V value, long elapsedNanos);
+
+    /**
+     * @return a listener which notifies this one and then {@code next}.
+     */
+    default DerivationListener<V> andThen(DerivationListener<V> next) {
+        return (id, value, elapsedNanos) -> {
+            derived(id, value, elapsedNanos);
+            next.derived(id, value, elapsedNanos);
+        };
+    }
+
+}
@@ -0,0 +1,94 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import expressionsolver.Expression;
+import expressionsolver.ExpressionSolver;
+
+/**
+ * Variability-encoded reliability expression of a set of components, kept
+ * as a DAG of per-component expressions instead of a single flattened one.
+ *
+ * Each node stands for {@code ite(s, e, 1)}, where {@code s} is the variable
+ * of the component's presence-condition equivalence class and {@code e} is
+ * the component's reliability expression. Variables of {@code e} which name
+ * previous components are links to the respective nodes, so a dependency
+ * shared by many components is a single shared node. This makes the DAG
+ * (and its evaluation) linear in the number of components, whereas textual
+ * substitution grows exponentially with the height of the RDG.
+ *
+ * Instances are not thread-safe, since parsed expressions keep state
+ * between evaluations.
+ */
+public class ExpressionDag {
+
+    private List<String> ids = new ArrayList<String>();
+    private List<String> variables = new ArrayList<String>();
+    private List<String> expressions = new ArrayList<String>();
+    private List<Expression<Double>> parsedExpressions = new ArrayList<Expression<Double>>();
+
+    /**
+     * @param components Components whose assets are their reliability
+     *          expressions, in topological order (i.e., dependencies first).
+     *          The last one is the root.
+     * @param pcEquivalence Mapping of presence conditions to the variables
+     *          which encode their presence.
+     * @param expressionSolver
+     */
+    public ExpressionDag(List<Component<String>> components, Map<String, String> pcEquivalence, ExpressionSolver expressionSolver) {
+        for (Component<String> component : components) {
+            ids.add(component.getId());
+            variables.add(pcEquivalence.get(component.getPresenceCondition()));
+            expressions.add(component.getAsset());
+            parsedExpressions.add(expressionSolver.parseExpression(component.getAsset()));
+        }
+    }
+
+    /**
+     * Evaluates the root of the DAG. Each node is evaluated at most once,
+     * and only if its presence variable is set.
+     *
+     * @param interpretation Values (0 or 1) of the presence variables.
+     * @return
+     */
+    public Double evaluate(Map<String, Double> interpretation) {
+        // Node values are keyed by component id, which is exactly how
+        // the expressions of dependent components refer to them.
+        Map<String, Double> values = new HashMap<String, Double>();
+        Double value = 1.0;
+        for (int i = 0; i < ids.size(); i++) {
+            Double present = interpretation.get(variables.get(i));
+            value = (present != null && present == 0.0) ? 1.0 : parsedExpressions.get(i).solve(values);
+            values.put(ids.get(i), value);
+        }
+        return value;
+    }
+
+    /**
+     * @return the number of nodes (i.e., of components).
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Textual representation with one binding per node, in evaluation order.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < ids.size(); i++) {
+            builder.append(ids.get(i))
+                .append(" = ite(")
+                .append(variables.get(i))
+                .append(", ")
+                .append(expressions.get(i))
+                .append(", 1.0); ");
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,88 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Derivation of successive products which keeps derived models across
+ * products, re-deriving only the components affected by the presence
+ * classes toggled since the previous product.
+ *
+ * A component is affected if its own presence class was toggled or if any
+ * of its dependencies was re-derived. Visiting products in Gray-code order
+ * (see {@link PresenceProjection#inGrayCodeOrder(java.util.Collection)})
+ * keeps the number of affected components low.
+ *
+ * Instances are stateful and not thread-safe: each worker must have its own.
+ *
+ * @param <A> Asset type
+ * @param <V> Value (derived) type
+ */
+public class IncrementalDerivation<A, V> {
+
+    private List<Component<A>> components;
+    private DerivationFunction<Boolean, A, V> derive;
+    private PresenceProjection projection;
+
+    private Map<String, V> derivedModels = new HashMap<String, V>();
+    private BitSet previousProduct = null;
+
+    private long derivedComponents = 0;
+    private long reusedComponents = 0;
+
+    /**
+     * @param components Components in topological order (dependencies first).
+     * @param derive
+     * @param projection
+     */
+    public IncrementalDerivation(List<Component<A>> components,
+                                 DerivationFunction<Boolean, A, V> derive,
+                                 PresenceProjection projection) {
+        this.components = components;
+        this.derive = derive;
+        this.projection = projection;
+    }
+
+    /**
+     * Derives the last component (i.e., the root) for the given product.
+     */
+    public V derive(BitSet product) {
+        BitSet toggled = null;
+        if (previousProduct != null) {
+            toggled = (BitSet) previousProduct.clone();
+            toggled.xor(product);
+        }
+        IsPresent<A, Boolean> isPresent = c -> projection.isPresent(product, c.getPresenceCondition());
+
+        Set<String> rederived = new HashSet<String>();
+        V derived = null;
+        for (Component<A> component : components) {
+            boolean affected = toggled == null
+                    || toggled.get(projection.getClassIndex(component.getPresenceCondition()))
+                    || component.getDependencies().stream().anyMatch(d -> rederived.contains(d.getId()));
+            if (affected) {
+                derived = Component.deriveSingle(component, isPresent, derive, derivedModels);
+                rederived.add(component.getId());
+                derivedComponents++;
+            } else {
+                derived = derivedModels.get(component.getId());
+                reusedComponents++;
+            }
+        }
+        previousProduct = product;
+        return derived;
+    }
+
+    public long getDerivedComponents() {
+        return derivedComponents;
+    }
+
+    public long getReusedComponents() {
+        return reusedComponents;
+    }
+
+}
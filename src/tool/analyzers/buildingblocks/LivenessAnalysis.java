@@ -0,0 +1,65 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Liveness analysis of derived values over a topologically ordered
+ * derivation: the value of a component is live until the last component
+ * which depends on it (its last consumer) has been derived.
+ *
+ * As a {@link DerivationListener}, it keeps track of the consumers yet to be
+ * derived, so that dead values are removed from the map of derived values
+ * and handed to a {@link ValueReleaser} as soon as possible. Values without
+ * consumers in the derivation (e.g., that of the root) are never released.
+ *
+ * @param <V> Value (derived) type
+ */
+public class LivenessAnalysis<V> implements DerivationListener<V> {
+
+    private Map<String, Collection<String>> dependencies;
+    private Map<String, Integer> pendingConsumers = new HashMap<String, Integer>();
+    private Map<String, V> derivedValues;
+    private ValueReleaser<V> releaser;
+
+    /**
+     * @param dependencies Ids of the components on which each component to
+     *          be derived depends.
+     * @param derivedValues Map of derived values (the same one passed on
+     *          to the derivation).
+     * @param releaser
+     */
+    public LivenessAnalysis(Map<String, ? extends Collection<String>> dependencies, Map<String, V> derivedValues, ValueReleaser<V> releaser) {
+        this.dependencies = new HashMap<String, Collection<String>>();
+        for (Map.Entry<String, ? extends Collection<String>> entry : dependencies.entrySet()) {
+            Collection<String> distinctDependencies = new HashSet<String>(entry.getValue());
+            this.dependencies.put(entry.getKey(), distinctDependencies);
+            for (String dependency : distinctDependencies) {
+                pendingConsumers.merge(dependency, 1, Integer::sum);
+            }
+        }
+        this.derivedValues = derivedValues;
+        this.releaser = releaser;
+    }
+
+    @Override
+    public void derived(String id, V value, long elapsedNanos) {
+        Collection<String> consumed = dependencies.get(id);
+        if (consumed == null) {
+            return;
+        }
+        for (String dependency : consumed) {
+            int pending = pendingConsumers.merge(dependency, -1, Integer::sum);
+            if (pending == 0) {
+                pendingConsumers.remove(dependency);
+                V dead = derivedValues.remove(dependency);
+                if (dead != null) {
+                    releaser.release(dependency, dead);
+                }
+            }
+        }
+    }
+
+}
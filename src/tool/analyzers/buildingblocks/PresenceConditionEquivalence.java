@@ -0,0 +1,25 @@
+package tool.analyzers.buildingblocks;
+
+/**
+ * Equivalence relation used to group presence conditions into
+ * equivalence classes (i.e., variables of family-wide expressions).
+ *
+ * @see PresenceConditions#toEquivalenceClasses(java.util.List, PresenceConditionEquivalence, expressionsolver.ExpressionSolver, jadd.ADD)
+ */
+public enum PresenceConditionEquivalence {
+    /**
+     * Presence conditions are equivalent iff they are the same string.
+     */
+    SYNTACTIC,
+    /**
+     * Presence conditions are equivalent iff they denote the same boolean
+     * function (e.g., {@code A && B} and {@code B && A}).
+     */
+    SEMANTIC,
+    /**
+     * Presence conditions are equivalent iff they agree on every valid
+     * configuration of the feature model. Results for invalid configurations
+     * are thus meaningless.
+     */
+    FEATURE_MODEL
+}
@@ -52,4 +52,52 @@ public class PresenceConditions {
         return classes;
     }
 
+    /**
+     * Maps a list of presence conditions into equivalence classes according
+     * to the given equivalence relation. Same guarantees as
+     * {@link #toEquivalenceClasses(List)}: every presence condition in the list
+     * is a key, and class identifiers are "s0", "s1", ... in order of first
+     * appearance of each class.
+     *
+     * Semantic equivalence is decided on the canonical 0,1-ADDs of the presence
+     * conditions (conjoined with the feature model for {@code FEATURE_MODEL}),
+     * so each distinct presence condition is encoded only once.
+     *
+     * @param presenceConditions
+     * @param equivalence
+     * @param expressionSolver Solver used to encode presence conditions
+     *          (ignored for {@code SYNTACTIC}).
+     * @param featureModel Feature model's 0,1-ADD (only used for {@code FEATURE_MODEL}).
+     * @return
+     */
+    public static Map<String, String> toEquivalenceClasses(List<String> presenceConditions,
+                                                           PresenceConditionEquivalence equivalence,
+                                                           ExpressionSolver expressionSolver,
+                                                           ADD featureModel) {
+        if (equivalence == PresenceConditionEquivalence.SYNTACTIC) {
+            return toEquivalenceClasses(presenceConditions);
+        }
+        Map<String, String> classes = new HashMap<String, String>();
+        // Equal canonical ADDs share the same root node, so classes are
+        // looked up by the identity of their representatives' root nodes.
+        // Representatives are never released, so their keys stay valid.
+        Map<Long, Integer> representatives = new HashMap<Long, Integer>();
+        for (String pc: presenceConditions) {
+            if (classes.containsKey(pc)) {
+                continue;
+            }
+            ADD encoded = expressionSolver.encodeFormula(pc);
+            if (equivalence == PresenceConditionEquivalence.FEATURE_MODEL) {
+                encoded = encoded.and(featureModel);
+            }
+            Integer eqClass = representatives.get(encoded.getIdentityKey());
+            if (eqClass == null) {
+                eqClass = representatives.size();
+                representatives.put(encoded.getIdentityKey(), eqClass);
+            }
+            classes.put(pc, "s"+eqClass);
+        }
+        return classes;
+    }
+
 }
@@ -0,0 +1,133 @@
+package tool.analyzers.buildingblocks;
+
+import jadd.ADD;
+import jadd.UnrecognizedVariableException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import tool.UnknownFeatureException;
+import expressionsolver.ExpressionSolver;
+
+/**
+ * Projection of configurations onto the presence-condition equivalence
+ * classes of a set of components.
+ *
+ * The projection of a configuration is the set of equivalence classes
+ * whose presence condition it satisfies. Configurations with the same
+ * projection derive the very same product, so they need to be analyzed
+ * only once.
+ *
+ * Each distinct presence condition is encoded only once, upon creation.
+ */
+public class PresenceProjection {
+
+    private Map<String, String> equivalenceClasses;
+    private Map<String, Integer> classIndices;
+    private ADD[] encodedPresenceConditions;
+
+    public PresenceProjection(List<String> presenceConditions, ExpressionSolver expressionSolver) {
+        // Semantically equivalent presence conditions always yield the same
+        // bit, so they are assigned the same class.
+        this.equivalenceClasses = PresenceConditions.toEquivalenceClasses(presenceConditions,
+                                                                          PresenceConditionEquivalence.SEMANTIC,
+                                                                          expressionSolver,
+                                                                          null);
+        this.classIndices = new HashMap<String, Integer>();
+        this.encodedPresenceConditions = new ADD[new HashSet<String>(equivalenceClasses.values()).size()];
+        for (Map.Entry<String, String> eqClass : equivalenceClasses.entrySet()) {
+            // Class identifiers are "s0", "s1", ...
+            int index = Integer.parseInt(eqClass.getValue().substring(1));
+            classIndices.put(eqClass.getKey(), index);
+            if (encodedPresenceConditions[index] == null) {
+                encodedPresenceConditions[index] = expressionSolver.encodeFormula(eqClass.getKey());
+            }
+        }
+    }
+
+    /**
+     * @param configuration
+     * @return the set of indices of the equivalence classes whose presence
+     *      condition is satisfied by {@code configuration}.
+     * @throws UnknownFeatureException in case the configuration relies on an
+     *      unknown feature.
+     */
+    public BitSet project(Collection<String> configuration) {
+        String[] variables = configuration.toArray(new String[configuration.size()]);
+        BitSet projection = new BitSet(encodedPresenceConditions.length);
+        for (int i = 0; i < encodedPresenceConditions.length; i++) {
+            try {
+                if (encodedPresenceConditions[i].eval(variables) == 1.0) {
+                    projection.set(i);
+                }
+            } catch (UnrecognizedVariableException e) {
+                throw new UnknownFeatureException(e.getVariableName());
+            }
+        }
+        return projection;
+    }
+
+    /**
+     * Tells whether {@code presenceCondition} (one of those this projection
+     * was built from) holds for the configurations projected onto {@code projection}.
+     */
+    public boolean isPresent(BitSet projection, String presenceCondition) {
+        return projection.get(classIndices.get(presenceCondition));
+    }
+
+    /**
+     * Index of the equivalence class of {@code presenceCondition} (one of
+     * those this projection was built from).
+     */
+    public int getClassIndex(String presenceCondition) {
+        return classIndices.get(presenceCondition);
+    }
+
+    /**
+     * Sorts projections by their rank in the reflected binary Gray code,
+     * so that consecutive projections tend to differ in very few classes.
+     *
+     * Classes are numbered in order of first appearance, that is, from the
+     * leaves of the RDG up. Lower-numbered classes are taken as the most
+     * significant ones, so that toggling classes whose components have many
+     * dependents (which would require re-deriving them all) is rarer than
+     * toggling classes near the root.
+     */
+    public List<BitSet> inGrayCodeOrder(Collection<BitSet> projections) {
+        Map<BitSet, BitSet> ranks = new HashMap<BitSet, BitSet>();
+        for (BitSet projection : projections) {
+            // Inverse Gray code: each bit is the parity of all bits at least
+            // as significant as itself.
+            BitSet rank = new BitSet(encodedPresenceConditions.length);
+            boolean parity = false;
+            for (int i = 0; i < encodedPresenceConditions.length; i++) {
+                parity ^= projection.get(i);
+                rank.set(i, parity);
+            }
+            ranks.put(projection, rank);
+        }
+        List<BitSet> ordered = new ArrayList<BitSet>(projections);
+        ordered.sort((p1, p2) -> compareRanks(ranks.get(p1), ranks.get(p2)));
+        return ordered;
+    }
+
+    private static int compareRanks(BitSet rank1, BitSet rank2) {
+        BitSet difference = (BitSet) rank1.clone();
+        difference.xor(rank2);
+        int mostSignificant = difference.nextSetBit(0);
+        if (mostSignificant < 0) {
+            return 0;
+        }
+        return rank1.get(mostSignificant) ? 1 : -1;
+    }
+
+    public int getNumberOfClasses() {
+        return encodedPresenceConditions.length;
+    }
+
+}
@@ -1,12 +1,19 @@
 package tool.analyzers.buildingblocks;
 
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public class ProductIterationHelper {
+    private static final Logger LOGGER = Logger.getLogger(ProductIterationHelper.class.getName());
 
     public static <T> Map<Collection<String>, Double> evaluate(Function<Collection<String>, Double> eval,
                                                                Stream<Collection<String>> configurations,
@@ -15,9 +22,61 @@ public class ProductIterationHelper {
                                                         configurations.parallel()
                                                         : configurations.sequential();
 
+        // Configurations may repeat (e.g., when sampled with replacement),
+        // in which case the first result is kept.
         Map<Collection<String>, Double> results = configs
                 .collect(Collectors.toMap(Function.identity(),
-                                          eval));
+                                          eval,
+                                          (first, second) -> first));
+        return results;
+    }
+
+    /**
+     * Evaluates configurations grouped by their projection onto presence
+     * conditions: each distinct projection is evaluated exactly once and its
+     * result is shared by all configurations with that projection.
+     *
+     * Distinct projections are visited in Gray-code order and split into
+     * contiguous chunks, one per worker (a single one unless running in
+     * parallel). Each chunk gets its own evaluator from {@code evaluators},
+     * so stateful evaluators may reuse work between consecutive products.
+     */
+    public static Map<Collection<String>, Double> evaluate(Supplier<Function<BitSet, Double>> evaluators,
+                                                           Stream<Collection<String>> configurations,
+                                                           PresenceProjection projection,
+                                                           ConcurrencyStrategy concurrencyStrategy) {
+        // Grouping only reads presence-condition ADDs, but CUDD calls are
+        // kept on a single thread anyway.
+        Map<BitSet, List<Collection<String>>> groups = configurations.sequential()
+                .collect(Collectors.groupingBy(projection::project));
+        LOGGER.info(groups.size() + " distinct products (projections onto "
+                + projection.getNumberOfClasses() + " presence conditions) to be evaluated.");
+
+        List<BitSet> schedule = projection.inGrayCodeOrder(groups.keySet());
+        int workers = concurrencyStrategy == ConcurrencyStrategy.PARALLEL ?
+                                Runtime.getRuntime().availableProcessors()
+                                : 1;
+        int chunkSize = Math.max(1, (schedule.size() + workers - 1) / workers);
+        IntStream chunks = IntStream.range(0, (schedule.size() + chunkSize - 1) / chunkSize);
+        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+            chunks = chunks.parallel();
+        }
+        Map<BitSet, Double> projectedResults = chunks
+                .mapToObj(chunk -> {
+                    Function<BitSet, Double> eval = evaluators.get();
+                    Map<BitSet, Double> chunkResults = new HashMap<BitSet, Double>();
+                    for (BitSet product : schedule.subList(chunk * chunkSize,
+                                                           Math.min(schedule.size(), (chunk + 1) * chunkSize))) {
+                        chunkResults.put(product, eval.apply(product));
+                    }
+                    return chunkResults;
+                })
+                .flatMap(chunkResults -> chunkResults.entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        Map<Collection<String>, Double> results = new HashMap<Collection<String>, Double>();
+        groups.forEach((key, group) -> group.forEach(configuration -> results.put(configuration,
+                                                                                  projectedResults.get(key))));
         return results;
     }
 
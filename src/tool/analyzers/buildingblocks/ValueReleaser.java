@@ -0,0 +1,14 @@
+package tool.analyzers.buildingblocks;
+
+/**
+ * Disposes of the value of a component which is no longer needed for
+ * deriving any other component (e.g., by freeing or spilling it to disk).
+ *
+ * @param <V> Value (derived) type
+ */
+@FunctionalInterface
+public interface ValueReleaser<V> {
+
+    void release(String id, V value);
+
+}
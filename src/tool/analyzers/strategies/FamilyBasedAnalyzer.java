@@ -16,6 +16,7 @@ import tool.analyzers.ADDReliabilityResults;
 import tool.analyzers.IReliabilityAnalysisResults;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
 import tool.analyzers.buildingblocks.FamilyBasedHelper;
+import tool.analyzers.buildingblocks.PresenceConditionEquivalence;
 import tool.analyzers.buildingblocks.PresenceConditions;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
@@ -35,6 +36,7 @@ public class FamilyBasedAnalyzer {
 
     private FamilyBasedFirstPhase firstPhase;
     private FamilyBasedHelper helper;
+    private PresenceConditionEquivalence pcEquivalenceRelation = PresenceConditionEquivalence.SEMANTIC;
 
     private ITimeCollector timeCollector;
     private IFormulaCollector formulaCollector;
@@ -55,6 +57,10 @@ public class FamilyBasedAnalyzer {
         this.helper = new FamilyBasedHelper(expressionSolver);
     }
 
+    public void setPresenceConditionEquivalence(PresenceConditionEquivalence pcEquivalenceRelation) {
+        this.pcEquivalenceRelation = pcEquivalenceRelation;
+    }
+
     /**
      * Evaluates the family-based reliability function of an RDG node.
      *
@@ -67,9 +73,17 @@ public class FamilyBasedAnalyzer {
         LOGGER.warning("Family-based analysis does not support parallel execution.");
         List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
 
+        List<String> presenceConditions = dependencies.stream()
+                .map(RDGNode::getPresenceCondition)
+                .collect(Collectors.toList());
+        Map<String, String> pcEquivalence = PresenceConditions.toEquivalenceClasses(presenceConditions,
+                                                                                    pcEquivalenceRelation,
+                                                                                    expressionSolver,
+                                                                                    featureModel);
+
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         // Lambda_v + alpha_v
-        String expression = firstPhase.getReliabilityExpression(dependencies);
+        String expression = firstPhase.getReliabilityExpression(dependencies, pcEquivalence);
         formulaCollector.collectFormula(node, expression);
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
@@ -77,10 +91,6 @@ public class FamilyBasedAnalyzer {
         // Lift
         Expression<ADD> liftedExpression = helper.lift(expression);
 
-        List<String> presenceConditions = dependencies.stream()
-                .map(RDGNode::getPresenceCondition)
-                .collect(Collectors.toList());
-        Map<String, String> pcEquivalence = PresenceConditions.toEquivalenceClasses(presenceConditions);
         Map<String, String> eqClassToPC = pcEquivalence.entrySet().stream()
                 .collect(Collectors.toMap(e -> e.getValue(),
                                           e -> e.getKey(),
@@ -46,12 +46,24 @@ public class FamilyBasedFirstPhase {
      * @return
      */
     public String getReliabilityExpression(List<RDGNode> dependencies) {
-        List<Component<FDTMC>> components = RDGNode.toComponentList(dependencies);
-        List<String> presenceConditions = components.stream()
-                .map(Component::getPresenceCondition)
+        List<String> presenceConditions = dependencies.stream()
+                .map(RDGNode::getPresenceCondition)
                 .collect(Collectors.toList());
 
         Map<String, String> pcEquivalence = PresenceConditions.toEquivalenceClasses(presenceConditions);
+        return getReliabilityExpression(dependencies, pcEquivalence);
+    }
+
+    /**
+     * Same as {@link #getReliabilityExpression(List)}, but with variables
+     * given by the provided mapping of presence conditions to equivalence classes.
+     *
+     * @param dependencies
+     * @param pcEquivalence
+     * @return
+     */
+    public String getReliabilityExpression(List<RDGNode> dependencies, Map<String, String> pcEquivalence) {
+        List<Component<FDTMC>> components = RDGNode.toComponentList(dependencies);
         FDTMC derived150Model = Component.deriveFromMany(components,
                                                          derive150Model,
                                                          c -> pcEquivalence.get(c.getPresenceCondition()));
@@ -1,5 +1,6 @@
 package tool.analyzers.strategies;
 
+import jadd.ADD;
 import jadd.JADD;
 
 import java.util.Collection;
@@ -16,6 +17,7 @@ import tool.RDGNode;
 import tool.analyzers.IReliabilityAnalysisResults;
 import tool.analyzers.MapBasedReliabilityResults;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.PresenceConditionEquivalence;
 import tool.analyzers.buildingblocks.PresenceConditions;
 import tool.analyzers.buildingblocks.ProductIterationHelper;
 import tool.stats.CollectibleTimers;
@@ -30,17 +32,21 @@ import expressionsolver.ExpressionSolver;
 public class FamilyProductBasedAnalyzer {
     private static final Logger LOGGER = Logger.getLogger(FamilyProductBasedAnalyzer.class.getName());
 
+    private ADD featureModel;
     private ExpressionSolver expressionSolver;
 
     private FamilyBasedFirstPhase firstPhase;
+    private PresenceConditionEquivalence pcEquivalenceRelation = PresenceConditionEquivalence.SEMANTIC;
 
     private ITimeCollector timeCollector;
     private IFormulaCollector formulaCollector;
 
     public FamilyProductBasedAnalyzer(JADD jadd,
+                               ADD featureModel,
                                ParametricModelChecker modelChecker,
                                ITimeCollector timeCollector,
                                IFormulaCollector formulaCollector) {
+        this.featureModel = featureModel;
         this.expressionSolver = new ExpressionSolver(jadd);
 
         this.firstPhase = new FamilyBasedFirstPhase(modelChecker);
@@ -49,6 +55,17 @@ public class FamilyProductBasedAnalyzer {
         this.formulaCollector = formulaCollector;
     }
 
+    /**
+     * Sets the equivalence relation used to group presence conditions into
+     * variables of the family-wide expression. {@code FEATURE_MODEL} is only
+     * sound if all evaluated configurations are valid.
+     *
+     * @param pcEquivalenceRelation
+     */
+    public void setPresenceConditionEquivalence(PresenceConditionEquivalence pcEquivalenceRelation) {
+        this.pcEquivalenceRelation = pcEquivalenceRelation;
+    }
+
     /**
      * Evaluates the family-product-based reliability function of an RDG node.
      *
@@ -61,19 +78,22 @@ public class FamilyProductBasedAnalyzer {
             LOGGER.info("Solving the family-wide expression for each product in parallel.");
         }
         List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+        List<String> presenceConditions = dependencies.stream()
+                .map(RDGNode::getPresenceCondition)
+                .collect(Collectors.toList());
+        Map<String, String> pcEquivalence = PresenceConditions.toEquivalenceClasses(presenceConditions,
+                                                                                    pcEquivalenceRelation,
+                                                                                    expressionSolver,
+                                                                                    featureModel);
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         // Lambda_v + alpha_v
-        String expression = firstPhase.getReliabilityExpression(dependencies);
+        String expression = firstPhase.getReliabilityExpression(dependencies, pcEquivalence);
         formulaCollector.collectFormula(node, expression);
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
         timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
 
-        List<String> presenceConditions = dependencies.stream()
-                .map(RDGNode::getPresenceCondition)
-                .collect(Collectors.toList());
-        Map<String, String> pcEquivalence = PresenceConditions.toEquivalenceClasses(presenceConditions);
         Map<String, String> eqClassToPC = pcEquivalence.entrySet().stream()
                 .collect(Collectors.toMap(e -> e.getValue(),
                                           e -> e.getKey(),
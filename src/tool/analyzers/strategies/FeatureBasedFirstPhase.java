@@ -2,6 +2,8 @@ package tool.analyzers.strategies;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -12,6 +14,8 @@ import tool.RDGNode;
 import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
 import tool.stats.IFormulaCollector;
+import tool.stats.INodeMetrics;
+import tool.stats.NoopNodeMetrics;
 import fdtmc.FDTMC;
 
 /**
@@ -22,11 +26,23 @@ public class FeatureBasedFirstPhase {
 
     ParametricModelChecker modelChecker;
     private IFormulaCollector formulaCollector;
+    private INodeMetrics nodeMetrics;
 
     public FeatureBasedFirstPhase(ParametricModelChecker modelChecker,
                                   IFormulaCollector formulaCollector) {
         this.modelChecker = modelChecker;
         this.formulaCollector = formulaCollector;
+        this.nodeMetrics = new NoopNodeMetrics();
+    }
+
+    /**
+     * Sets the collector of per-node model-checking latencies and
+     * formula sizes.
+     *
+     * @param nodeMetrics
+     */
+    public void setNodeMetrics(INodeMetrics nodeMetrics) {
+        this.nodeMetrics = nodeMetrics;
     }
 
     /**
@@ -60,6 +76,24 @@ public class FeatureBasedFirstPhase {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Asynchronously computes the reliability expression for the model of
+     * a single RDG node, using {@code executor} to run the model checker.
+     *
+     * The resulting component carries the node's id and presence condition,
+     * but no dependencies.
+     *
+     * @param node
+     * @param executor
+     * @return
+     */
+    public CompletableFuture<Component<String>> getReliabilityExpressionAsync(RDGNode node, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> new Component<String>(node.getId(),
+                                                                         node.getPresenceCondition(),
+                                                                         getReliabilityExpression(node)),
+                                             executor);
+    }
+
     /**
      * Computes the reliability expression for the model of a given RDG node.
      *
@@ -68,9 +102,12 @@ public class FeatureBasedFirstPhase {
      */
     private String getReliabilityExpression(RDGNode node) {
         FDTMC model = node.getFDTMC();
-        String reliabilityExpression = modelChecker.getReliability(model);
+        long startTime = System.nanoTime();
+        String reliabilityExpression = modelChecker.getReliability(model, node.getId());
+        nodeMetrics.recordModelChecking(node.getId(), System.nanoTime() - startTime);
 
         formulaCollector.collectFormula(node, reliabilityExpression);
+        nodeMetrics.recordFormulaSize(node.getId(), reliabilityExpression.length());
         LOGGER.fine("Reliability expression for "+ node.getId() + " -> " + reliabilityExpression);
         return reliabilityExpression;
     }
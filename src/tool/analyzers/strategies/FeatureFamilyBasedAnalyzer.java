@@ -3,12 +3,23 @@ package tool.analyzers.strategies;
 import jadd.ADD;
 import jadd.JADD;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import paramwrapper.ParametricModelChecker;
@@ -18,15 +29,22 @@ import tool.analyzers.ADDReliabilityResults;
 import tool.analyzers.IPruningStrategy;
 import tool.analyzers.IReliabilityAnalysisResults;
 import tool.analyzers.NoPruningStrategy;
-import tool.analyzers.buildingblocks.AssetProcessor;
 import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
 import tool.analyzers.buildingblocks.DerivationFunction;
+import tool.analyzers.buildingblocks.DerivationListener;
 import tool.analyzers.buildingblocks.FamilyBasedHelper;
+import tool.analyzers.buildingblocks.IfThenElse;
+import tool.analyzers.buildingblocks.LivenessAnalysis;
+import tool.analyzers.buildingblocks.ValueReleaser;
+import tool.events.AddApplyBatchEvent;
 import tool.stats.CollectibleTimers;
+import tool.stats.IAddGrowthProfiler;
 import tool.stats.IFormulaCollector;
+import tool.stats.INodeMetrics;
 import tool.stats.IReuseCollector;
 import tool.stats.ITimeCollector;
+import tool.stats.NoopNodeMetrics;
 import expressionsolver.Expression;
 import expressionsolver.ExpressionSolver;
 
@@ -34,6 +52,7 @@ import expressionsolver.ExpressionSolver;
  * Orchestrator of feature-family-based analyses.
  */
 public class FeatureFamilyBasedAnalyzer {
+    private static final Logger LOGGER = Logger.getLogger(FeatureFamilyBasedAnalyzer.class.getName());
 
     private ADD featureModel;
     private JADD jadd;
@@ -43,14 +62,15 @@ public class FeatureFamilyBasedAnalyzer {
     private FeatureBasedFirstPhase firstPhase;
     private FamilyBasedHelper helper;
 
-    /**
-     * Sigma_v
-     */
-    private DerivationFunction<ADD, Expression<ADD>, ADD> solve;
+    private DerivationListener<ADD> recordDerivation;
 
 
     private ITimeCollector timeCollector;
     private IReuseCollector reuseCollector;
+    private INodeMetrics nodeMetrics;
+    private IAddGrowthProfiler growthProfiler;
+    private ValueReleaser<ADD> intermediateReleaser;
+    private int modelCheckingWorkers = Runtime.getRuntime().availableProcessors();
 
     public FeatureFamilyBasedAnalyzer(JADD jadd,
                                       ADD featureModel,
@@ -64,20 +84,14 @@ public class FeatureFamilyBasedAnalyzer {
 
         this.timeCollector = timeCollector;
         this.reuseCollector = reuseCollector;
+        this.nodeMetrics = new NoopNodeMetrics();
         this.pruningStrategy = new NoPruningStrategy();
 
         this.firstPhase = new FeatureBasedFirstPhase(modelChecker,
                                                      formulaCollector);
         this.helper = new FamilyBasedHelper(expressionSolver);
 
-        AssetProcessor<Expression<ADD>, ADD> evalAndPrune = (expr, values) -> {
-            return this.pruningStrategy.pruneInvalidConfigurations(null,
-                                                                   expr.solve(values),
-                                                                   featureModel);
-        };
-        solve = DerivationFunction.abstractDerivation(ADD::ite,
-                                                      evalAndPrune,
-                                                      jadd.makeConstant(1.0));
+        recordDerivation = (id, reliability, elapsedNanos) -> this.nodeMetrics.recordDerivation(id, elapsedNanos, reliability);
     }
 
     /**
@@ -95,25 +109,28 @@ public class FeatureFamilyBasedAnalyzer {
      */
     public IReliabilityAnalysisResults evaluateReliability(RDGNode node, ConcurrencyStrategy concurrencyStrategy, String dotOutput, Map<String, ADD> previousAnalysis) throws CyclicRdgException {
         List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+            return evaluatePipelined(node, dependencies, previousAnalysis);
+        }
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         // Alpha_v
-        long alphaTime = System.currentTimeMillis();
+        long alphaTime = System.nanoTime();
         List<Component<String>> expressions = firstPhase.getReliabilityExpressions(dependencies, concurrencyStrategy);
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
-        alphaTime = System.currentTimeMillis() - alphaTime;
+        recordPhase("Alpha", System.nanoTime() - alphaTime);
         timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
-        System.out.println ("++++++ Alpha Time: " + alphaTime + " ++++++");
 
         // Lift
+        long liftTime = System.nanoTime();
         List<Component<Expression<ADD>>> liftedExpressions = expressions.stream()
-                .map(helper::lift)
+                .map(this::lift)
                 .collect(Collectors.toList());
+        recordPhase("Lift", System.nanoTime() - liftTime);
         // Sigma_v
-        long sigmaTime = System.currentTimeMillis();
-        ADD reliability = newSolveFromMany(liftedExpressions, previousAnalysis);
+        long sigmaTime = System.nanoTime();
+        ADD reliability = newSolveFromMany(liftedExpressions, previousAnalysis, listenerFor(dependencies, previousAnalysis));
         ADD result = featureModel.times(reliability);
-        sigmaTime = System.currentTimeMillis() - sigmaTime;
-        System.out.println ("++++++ Sigma Time: " + sigmaTime + " ++++++");
+        recordPhase("Sigma", System.nanoTime() - sigmaTime);
 
         timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
         
@@ -126,55 +143,46 @@ public class FeatureFamilyBasedAnalyzer {
     }
 
     public IReliabilityAnalysisResults evaluateReliabilityWithEvolution(RDGNode node, ConcurrencyStrategy concurrencyStrategy, String dotOutput, String idFragment, Map<String, ADD> previousAnalysis) throws CyclicRdgException {
-    	System.out.println ("***** Evolution aware reliability analysis *****");
+    	LOGGER.info("Evolution aware reliability analysis");
     	List<RDGNode> dependencies = getModifiedNodes(node, idFragment, previousAnalysis);
     	for (RDGNode impactedNode: dependencies) {
     	    reuseCollector.logImpactedNode(impactedNode.getId());
+    	    nodeMetrics.recordReuse(impactedNode.getId(), false);
     	}
-//    	generateDotFile(previousAnalysis.get("drawBuffer"), "ADD.dot");
-    	long alphaTime = System.currentTimeMillis();
+    	if (!previousAnalysis.isEmpty()) {
+    	    Set<RDGNode> impacted = new HashSet<RDGNode>(dependencies);
+    	    for (RDGNode reusedNode: node.getDependenciesTransitiveClosure()) {
+    	        if (!impacted.contains(reusedNode) && previousAnalysis.containsKey(reusedNode.getId())) {
+    	            reuseCollector.logReusedNode(reusedNode.getId());
+    	            nodeMetrics.recordReuse(reusedNode.getId(), true);
+    	        }
+    	    }
+    	}
+        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+            return evaluatePipelined(node, dependencies, previousAnalysis);
+        }
+    	long alphaTime = System.nanoTime();
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         // Alpha_v
         List<Component<String>> expressions = firstPhase.getReliabilityExpressions(dependencies, concurrencyStrategy);
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
-        alphaTime = System.currentTimeMillis() - alphaTime;
-        System.out.println ("++++++ Alpha Time: " + alphaTime + " ++++++");
+        recordPhase("Alpha", System.nanoTime() - alphaTime);
         timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
         // Lift
-        long liftTime = System.currentTimeMillis();
+        long liftTime = System.nanoTime();
         List<Component<Expression<ADD>>> liftedExpressions = expressions.stream()
-                .map(helper::lift)
+                .map(this::lift)
                 .collect(Collectors.toList());
-        liftTime = System.currentTimeMillis() - liftTime;
-        System.out.println ("++++++ Lift Time: " + liftTime + " ++++++");
-        //Reorder
-//        if (idFragment.contentEquals("SD_2") || idFragment.contentEquals("SD_5") || idFragment.contentEquals("SD_8") || idFragment.contentEquals("SD_11") || idFragment.contentEquals("SD_14") || idFragment.contentEquals("SD_17") || idFragment.contentEquals("SD_20") || idFragment.contentEquals("SD_23") || idFragment.contentEquals("SD_26") || idFragment.contentEquals("SD_29")) {
-//        if (idFragment.contentEquals("SD_2")) {
-//        	long reorderTime = System.currentTimeMillis();
-//        	jadd.reorderVariables();
-//        	reorderTime = System.currentTimeMillis() - reorderTime;
-//        	System.out.println ("++++++ Reorder Time: " + reorderTime + " ++++++");
-//        }
-//        generateDotFile(previousAnalysis.get("Capture"), "capturePosOrder"+idFragment+".dot");
+        recordPhase("Lift", System.nanoTime() - liftTime);
+        // Reordering during Sigma_v is driven by the JADD's reordering policy.
+        // Nodes which blow ADDs up can be found by means of an ADD growth profiler.
         // Sigma_v
-        long sigmaTime = System.currentTimeMillis();
-        ADD reliability = newSolveFromMany(liftedExpressions, previousAnalysis);
+        long sigmaTime = System.nanoTime();
+        ADD reliability = newSolveFromMany(liftedExpressions, previousAnalysis, listenerFor(dependencies, previousAnalysis));
         ADD result = featureModel.times(reliability);
-        sigmaTime = System.currentTimeMillis() - sigmaTime;
-        System.out.println ("++++++ Sigma Time: " + sigmaTime + " ++++++");
+        recordPhase("Sigma", System.nanoTime() - sigmaTime);
         timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
 
-//        generateDotFile(previousAnalysis.get("Capture"), "capturePos"+idFragment+".dot");
-        
-        
-//        for(String s : previousAnalysis.keySet()){
-//        	generateDotFile(previousAnalysis.get(s),"DOTS/"+ s + "E4pos.dot");
-//        }
-        
-//        if (true) {
-//        	generateDotFile(result, "saida1.dot");
-//        }
-       
         //remove a raiz
         previousAnalysis.remove(node.getId());
 
@@ -182,6 +190,18 @@ public class FeatureFamilyBasedAnalyzer {
         return new ADDReliabilityResults(result);
     }
 
+    /**
+     * Evaluates the reliability function of {@code node} by means of
+     * {@link #pipelinedSolveFromMany(List, Map)}, pruning it by the feature model.
+     */
+    private IReliabilityAnalysisResults evaluatePipelined(RDGNode node, List<RDGNode> dependencies, Map<String, ADD> previousAnalysis) {
+        ADD reliability = pipelinedSolveFromMany(dependencies, previousAnalysis);
+        ADD result = featureModel.times(reliability);
+        timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+        previousAnalysis.remove(node.getId());
+        return new ADDReliabilityResults(result);
+    }
+
     private static List<RDGNode> getModifiedNodes(RDGNode root,String idFragment, Map<String, ADD> previousAnalysis){
         if(previousAnalysis.isEmpty())
             return root.getDependenciesTransitiveClosure();
@@ -223,6 +243,57 @@ public class FeatureFamilyBasedAnalyzer {
         this.pruningStrategy = pruningStrategy;
     }
 
+    /**
+     * Sets the collector of per-node metrics (model-checking, lift and
+     * derivation times, formula and ADD sizes, and reuse status).
+     *
+     * @param nodeMetrics
+     */
+    public void setNodeMetrics(INodeMetrics nodeMetrics) {
+        this.nodeMetrics = nodeMetrics;
+        this.firstPhase.setNodeMetrics(nodeMetrics);
+    }
+
+    /**
+     * Sets a profiler to which the sizes of the ADDs involved in each
+     * operation of Sigma_v are reported. Profiling is disabled by default,
+     * since computing ADD sizes takes time of its own.
+     *
+     * @param growthProfiler
+     */
+    public void setAddGrowthProfiler(IAddGrowthProfiler growthProfiler) {
+        this.growthProfiler = growthProfiler;
+    }
+
+    /**
+     * Sets what to do with the ADD of each node once all nodes which depend
+     * on it have been derived, as found by a liveness analysis over the
+     * evaluation order. Such ADDs are removed from the map of previous
+     * analyses before being handed to {@code releaser}, so that the map
+     * only holds live ADDs (and those of nodes without consumers, such as
+     * the root) at any time.
+     *
+     * If none is set, the default behavior is to keep every ADD in the map.
+     *
+     * @param releaser
+     */
+    public void setIntermediateAddReleaser(ValueReleaser<ADD> releaser) {
+        this.intermediateReleaser = releaser;
+    }
+
+    /**
+     * Sets the number of threads which run Alpha_v in the parallel strategy.
+     * It should match the number of model-checker workers (see
+     * {@link paramwrapper.ModelCheckerPool}), since each thread mostly waits
+     * for a model-checker process. Defaults to the number of processors,
+     * as does the default pool.
+     *
+     * @param modelCheckingWorkers
+     */
+    public void setModelCheckingWorkers(int modelCheckingWorkers) {
+        this.modelCheckingWorkers = modelCheckingWorkers;
+    }
+
     /**
      * Dumps the computed family reliability function to the output file
      * in the specified path.
@@ -235,15 +306,239 @@ public class FeatureFamilyBasedAnalyzer {
         jadd.dumpDot("Family Reliability", familyReliability, outputFile);
     }
 
-    private ADD solveFromMany(List<Component<Expression<ADD>>> dependencies) {
-        return Component.deriveFromMany(dependencies,
-                                        solve,
-                                        c -> expressionSolver.encodeFormula(c.getPresenceCondition()));
+    /**
+     * Staged version of Alpha_v, Lift and Sigma_v, in which each node is lifted
+     * and solved as soon as its own reliability expression and the ADDs of
+     * all of its dependencies are ready.
+     *
+     * Model checking runs concurrently, while lifting and solving are confined
+     * to a single thread, as the underlying CUDD manager is not thread-safe.
+     * Dependencies which are not in {@code nodes} are expected to be found
+     * in {@code previousAnalysis}.
+     *
+     * Leaves the expression solving timer running, so that the caller can
+     * account for the final pruning by the feature model.
+     *
+     * If the analysis of some node fails, the failing node is logged and
+     * the original exception is rethrown (rather than a CompletionException).
+     *
+     * @param nodes RDG nodes in topological order (the root being the last one).
+     * @param previousAnalysis
+     * @return the reliability function of the last node.
+     */
+    private ADD pipelinedSolveFromMany(List<RDGNode> nodes, Map<String, ADD> previousAnalysis) {
+        ExecutorService alphaExecutor = Executors.newFixedThreadPool(modelCheckingWorkers);
+        ExecutorService sigmaExecutor = Executors.newSingleThreadExecutor();
+
+        long startTime = System.nanoTime();
+        Map<String, Long> alphaFinishTimes = new ConcurrentHashMap<String, Long>();
+        Map<String, Long> sigmaFinishTimes = new ConcurrentHashMap<String, Long>();
+        Map<String, CompletableFuture<Component<String>>> expressions = new HashMap<String, CompletableFuture<Component<String>>>();
+        Map<String, CompletableFuture<ADD>> solved = new HashMap<String, CompletableFuture<ADD>>();
+        DerivationListener<ADD> listener = listenerFor(nodes, previousAnalysis);
+        try {
+            timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+            for (RDGNode node: nodes) {
+                String id = node.getId();
+                // Alpha_v
+                CompletableFuture<Component<String>> expression = firstPhase.getReliabilityExpressionAsync(node, alphaExecutor)
+                        .whenComplete((c, e) -> alphaFinishTimes.put(id, System.nanoTime() - startTime));
+                CompletableFuture<?>[] dependencies = node.getDependencies().stream()
+                        .map(d -> solved.get(d.getId()))
+                        .filter(Objects::nonNull)
+                        .toArray(CompletableFuture<?>[]::new);
+                // Lift + Sigma_v
+                CompletableFuture<ADD> reliability = expression.thenCombine(CompletableFuture.allOf(dependencies),
+                                                                            (c, ready) -> c)
+                        .thenApplyAsync(c -> Component.deriveSingle(lift(c),
+                                                                    l -> expressionSolver.encodeFormula(l.getPresenceCondition()),
+                                                                    solveFor(id),
+                                                                    previousAnalysis,
+                                                                    listener),
+                                        sigmaExecutor)
+                        .whenComplete((r, e) -> sigmaFinishTimes.put(id, System.nanoTime() - startTime));
+                expressions.put(id, expression);
+                solved.put(id, reliability);
+            }
+
+            CompletableFuture.allOf(expressions.values().toArray(new CompletableFuture<?>[0])).join();
+            timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+            long alphaTime = System.nanoTime() - startTime;
+            recordPhase("Alpha", alphaTime);
+
+            timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+            RDGNode root = nodes.get(nodes.size() - 1);
+            ADD reliability = solved.get(root.getId()).join();
+            recordPhase("Sigma", System.nanoTime() - startTime - alphaTime);
+
+            reportCriticalPath(root, alphaFinishTimes, sigmaFinishTimes);
+            return reliability;
+        } catch (CompletionException e) {
+            // Failures propagate to dependent nodes, so the first failed
+            // node in topological order is where the failure originated.
+            String failedNode = nodes.stream()
+                    .map(RDGNode::getId)
+                    .filter(id -> expressions.get(id).isCompletedExceptionally() || solved.get(id).isCompletedExceptionally())
+                    .findFirst()
+                    .orElse("unknown");
+            Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+            LOGGER.log(Level.SEVERE, "Analysis of RDG node " + failedNode + " failed", cause);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        } finally {
+            alphaExecutor.shutdownNow();
+            sigmaExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Reports the chain of nodes which determined the finishing time of
+     * {@code root} in a pipelined evaluation: starting at the root, we follow
+     * the dependency which was solved last, until we reach a node which had to
+     * wait for its own model checking instead.
+     */
+    private void reportCriticalPath(RDGNode root, Map<String, Long> alphaFinishTimes, Map<String, Long> sigmaFinishTimes) {
+        LinkedList<String> path = new LinkedList<String>();
+        RDGNode current = root;
+        while (current != null) {
+            path.addFirst(current.getId());
+            long alphaFinish = alphaFinishTimes.getOrDefault(current.getId(), 0L);
+            RDGNode latest = null;
+            long latestFinish = alphaFinish;
+            for (RDGNode dependency: current.getDependencies()) {
+                Long finish = sigmaFinishTimes.get(dependency.getId());
+                if (finish != null && finish > latestFinish) {
+                    latest = dependency;
+                    latestFinish = finish;
+                }
+            }
+            current = latest;
+        }
+        recordPhase("Critical path", sigmaFinishTimes.getOrDefault(root.getId(), 0L));
+        LOGGER.fine("Critical path: " + String.join(" -> ", path));
+    }
+
+    private Component<Expression<ADD>> lift(Component<String> expression) {
+        long startTime = System.nanoTime();
+        Component<Expression<ADD>> lifted = helper.lift(expression);
+        nodeMetrics.recordLift(expression.getId(), System.nanoTime() - startTime);
+        return lifted;
+    }
+
+    private void recordPhase(String phase, long elapsedNanos) {
+        nodeMetrics.recordPhase(phase, elapsedNanos);
+        LOGGER.fine(phase + " time: " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+    }
+
+    /**
+     * Prunes the reliability function of a node, as part of Sigma_v.
+     */
+    private ADD prune(ADD reliability) {
+        ADD pruned = this.pruningStrategy.pruneInvalidConfigurations(null,
+                                                                     reliability,
+                                                                     featureModel);
+        // Lets growth-triggered reordering policies react to blow-ups
+        // as soon as they happen.
+        jadd.reorderIfGrown();
+        return pruned;
+    }
+
+    /**
+     * Solves the expression of a node and prunes the result, i.e., applies
+     * the batch of ADD operations of Sigma_v for present nodes. The batch is
+     * reported as a JFR event and, if profiling, its operations are reported
+     * to the ADD growth profiler.
+     */
+    private ADD solveAndPrune(String nodeId, Expression<ADD> expression, Map<String, ADD> values) {
+        AddApplyBatchEvent event = new AddApplyBatchEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        ADD solved = expression.solve(values);
+        long solvingTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        ADD pruned = prune(solved);
+        long pruningTime = System.nanoTime() - startTime;
+        event.end();
+
+        boolean commit = event.shouldCommit();
+        if (growthProfiler != null || commit) {
+            List<ADD> operands = expression.getVariables().stream()
+                    .map(values::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            if (growthProfiler != null) {
+                growthProfiler.recordOperation(nodeId, "solve", operands, solved, solvingTime);
+                growthProfiler.recordOperation(nodeId, "prune", Arrays.asList(solved), pruned, pruningTime);
+            }
+            if (commit) {
+                event.nodeId = nodeId;
+                event.operands = operands.size();
+                event.largestOperandSize = operands.stream()
+                        .mapToInt(ADD::getNodeCount)
+                        .max()
+                        .orElse(0);
+                event.solvedSize = solved.getNodeCount();
+                event.prunedSize = pruned.getNodeCount();
+                event.commit();
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * @return Sigma_v for the given node.
+     */
+    private DerivationFunction<ADD, Expression<ADD>, ADD> solveFor(String nodeId) {
+        IfThenElse<ADD, ADD> ite = ADD::ite;
+        if (growthProfiler != null) {
+            ite = (presence, ifPresent, ifAbsent) -> {
+                long startTime = System.nanoTime();
+                ADD reliability = ADD.ite(presence, ifPresent, ifAbsent);
+                growthProfiler.recordOperation(nodeId, "ite", Arrays.asList(presence, ifPresent), reliability, System.nanoTime() - startTime);
+                return reliability;
+            };
+        }
+        return DerivationFunction.abstractDerivation(ite,
+                                                     (expression, values) -> solveAndPrune(nodeId, expression, values),
+                                                     jadd.makeConstant(1.0));
     }
 
-    private ADD newSolveFromMany(List<Component<Expression<ADD>>> dependencies, Map<String, ADD> previousAnalysis) {
-        return Component.newDeriveFromMany(dependencies,
-                                        solve,
-                                        c -> expressionSolver.encodeFormula(c.getPresenceCondition()), previousAnalysis);
+    /**
+     * @return the listener of the derivation of {@code nodes} (in topological
+     *      order), which also releases intermediate ADDs, if so configured.
+     */
+    private DerivationListener<ADD> listenerFor(List<RDGNode> nodes, Map<String, ADD> previousAnalysis) {
+        if (intermediateReleaser == null) {
+            return recordDerivation;
+        }
+        Map<String, List<String>> dependencies = new HashMap<String, List<String>>();
+        for (RDGNode node : nodes) {
+            dependencies.put(node.getId(),
+                             node.getDependencies().stream()
+                                 .map(RDGNode::getId)
+                                 .collect(Collectors.toList()));
+        }
+        return recordDerivation.andThen(new LivenessAnalysis<ADD>(dependencies,
+                                                                  previousAnalysis,
+                                                                  intermediateReleaser));
+    }
+
+    private ADD newSolveFromMany(List<Component<Expression<ADD>>> dependencies, Map<String, ADD> previousAnalysis, DerivationListener<ADD> listener) {
+        // Each node gets a derivation function of its own, so that its
+        // ADD operations can be attributed to it.
+        ADD reliability = null;
+        for (Component<Expression<ADD>> dependency : dependencies) {
+            reliability = Component.deriveSingle(dependency,
+                                                 c -> expressionSolver.encodeFormula(c.getPresenceCondition()),
+                                                 solveFor(dependency.getId()),
+                                                 previousAnalysis,
+                                                 listener);
+        }
+        return reliability;
     }
 }
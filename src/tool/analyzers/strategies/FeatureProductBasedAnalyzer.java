@@ -2,6 +2,7 @@ package tool.analyzers.strategies;
 
 import jadd.JADD;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -18,10 +19,11 @@ import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
 import tool.analyzers.buildingblocks.DerivationFunction;
 import tool.analyzers.buildingblocks.IfOperator;
-import tool.analyzers.buildingblocks.PresenceConditions;
+import tool.analyzers.buildingblocks.PresenceProjection;
 import tool.analyzers.buildingblocks.ProductIterationHelper;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
+import tool.stats.INodeMetrics;
 import tool.stats.ITimeCollector;
 import expressionsolver.ExpressionSolver;
 
@@ -58,6 +60,16 @@ public class FeatureProductBasedAnalyzer {
                                                       1.0);
     }
 
+    /**
+     * Sets the collector of per-node model-checking latencies and
+     * formula sizes.
+     *
+     * @param nodeMetrics
+     */
+    public void setNodeMetrics(INodeMetrics nodeMetrics) {
+        this.firstPhase.setNodeMetrics(nodeMetrics);
+    }
+
     /**
      * Evaluates the feature-product-based reliability value of an RDG node, based
      * on the reliabilities of the nodes on which it depends.
@@ -80,22 +92,24 @@ public class FeatureProductBasedAnalyzer {
         if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
             LOGGER.info("Evaluating all expressions for each product in parallel.");
         }
-        Map<Collection<String>, Double> results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(node,
-                                                                                                                  configuration,
+        PresenceProjection projection = new PresenceProjection(ProductBasedAnalyzer.getPresenceConditions(dependencies),
+                                                               expressionSolver);
+        Map<Collection<String>, Double> results = ProductIterationHelper.evaluate(() -> product -> evaluateSingle(node,
+                                                                                                                  projection,
+                                                                                                                  product,
                                                                                                                   expressions),
                                                                                   configurations,
+                                                                                  projection,
                                                                                   concurrencyStrategy);
 
         timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
         return new MapBasedReliabilityResults(results);
     }
 
-    private Double evaluateSingle(RDGNode node, Collection<String> configuration, List<Component<String>> expressions) {
+    private Double evaluateSingle(RDGNode node, PresenceProjection projection, BitSet product, List<Component<String>> expressions) {
         return Component.deriveFromMany(expressions,
                                         solve,
-                                        c -> PresenceConditions.isPresent(c.getPresenceCondition(),
-                                                                          configuration,
-                                                                          expressionSolver));
+                                        c -> projection.isPresent(product, c.getPresenceCondition()));
     }
 
 }
@@ -2,10 +2,14 @@ package tool.analyzers.strategies;
 
 import jadd.JADD;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import paramwrapper.ParametricModelChecker;
@@ -14,11 +18,11 @@ import tool.RDGNode;
 import tool.UnknownFeatureException;
 import tool.analyzers.IReliabilityAnalysisResults;
 import tool.analyzers.MapBasedReliabilityResults;
-import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
 import tool.analyzers.buildingblocks.DerivationFunction;
+import tool.analyzers.buildingblocks.IncrementalDerivation;
 import tool.analyzers.buildingblocks.IfOperator;
-import tool.analyzers.buildingblocks.PresenceConditions;
+import tool.analyzers.buildingblocks.PresenceProjection;
 import tool.analyzers.buildingblocks.ProductIterationHelper;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
@@ -75,20 +79,36 @@ public class ProductBasedAnalyzer {
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
-        Map<Collection<String>, Double> results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(node,
-                                                                                                                  configuration,
-                                                                                                                  dependencies),
+        PresenceProjection projection = new PresenceProjection(getPresenceConditions(dependencies),
+                                                               expressionSolver);
+        // One incremental derivation per worker, so that consecutive
+        // products only re-inline the components affected by their difference.
+        List<IncrementalDerivation<FDTMC, FDTMC>> derivations = new CopyOnWriteArrayList<IncrementalDerivation<FDTMC, FDTMC>>();
+        Map<Collection<String>, Double> results = ProductIterationHelper.evaluate(() -> newEvaluator(node, dependencies, projection, derivations),
                                                                                   configurations,
+                                                                                  projection,
                                                                                   concurrencyStrategy);
+        LOGGER.info("Components derived: " + derivations.stream().mapToLong(IncrementalDerivation::getDerivedComponents).sum()
+                + ", reused from the previous product: " + derivations.stream().mapToLong(IncrementalDerivation::getReusedComponents).sum());
 
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         return new MapBasedReliabilityResults(results);
     }
 
-    private Double evaluateSingle(RDGNode node, Collection<String> configuration, List<RDGNode> dependencies) throws UnknownFeatureException {
-        List<Component<FDTMC>> models = RDGNode.toComponentList(dependencies);
+    private Function<BitSet, Double> newEvaluator(RDGNode node,
+                                                  List<RDGNode> dependencies,
+                                                  PresenceProjection projection,
+                                                  List<IncrementalDerivation<FDTMC, FDTMC>> derivations) {
+        IncrementalDerivation<FDTMC, FDTMC> derivation = new IncrementalDerivation<FDTMC, FDTMC>(RDGNode.toComponentList(dependencies),
+                                                                                                 derive,
+                                                                                                 projection);
+        derivations.add(derivation);
+        return product -> evaluateSingle(node, derivation, product);
+    }
+
+    private Double evaluateSingle(RDGNode node, IncrementalDerivation<FDTMC, FDTMC> derivation, BitSet product) throws UnknownFeatureException {
         // Lambda folding
-        FDTMC rootModel = deriveFromMany(models, configuration);
+        FDTMC rootModel = derivation.derive(product);
         // Alpha
         String reliabilityExpression = modelChecker.getReliability(rootModel);
         formulaCollector.collectFormula(node, reliabilityExpression);
@@ -96,12 +116,10 @@ public class ProductBasedAnalyzer {
         return expressionSolver.solveExpression(reliabilityExpression);
     }
 
-    private FDTMC deriveFromMany(List<Component<FDTMC>> dependencies, Collection<String> configuration) {
-        return Component.deriveFromMany(dependencies,
-                                        derive,
-                                        c -> PresenceConditions.isPresent(c.getPresenceCondition(),
-                                                                          configuration,
-                                                                          expressionSolver));
+    static List<String> getPresenceConditions(List<RDGNode> dependencies) {
+        return dependencies.stream()
+                .map(RDGNode::getPresenceCondition)
+                .collect(Collectors.toList());
     }
 
     private FDTMC trivialFdtmc() {
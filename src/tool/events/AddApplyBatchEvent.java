@@ -0,0 +1,38 @@
+package tool.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the ADD operations which solve the expression of an
+ * RDG node and prune the result (i.e., the batch of ADD applies of Sigma_v).
+ *
+ * Sizes are numbers of ADD nodes.
+ */
+@Name("reana.AddApplyBatch")
+@Label("ADD Apply Batch")
+@Category({"ReAna", "ADD"})
+@Description("Solution of an RDG node's expression over ADDs, followed by pruning")
+@StackTrace(false)
+public class AddApplyBatchEvent extends Event {
+
+    @Label("Node")
+    public String nodeId;
+
+    @Label("Operands")
+    public int operands;
+
+    @Label("Largest Operand Size")
+    public int largestOperandSize;
+
+    @Label("Solved Size")
+    public int solvedSize;
+
+    @Label("Pruned Size")
+    public int prunedSize;
+
+}
@@ -0,0 +1,27 @@
+package tool.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the derivation of a single component (e.g., the
+ * evaluation of the reliability function of an RDG node).
+ */
+@Name("reana.Derivation")
+@Label("Derivation")
+@Category({"ReAna", "Analysis"})
+@Description("Derivation of the value of a single component")
+@StackTrace(false)
+public class DerivationEvent extends Event {
+
+    @Label("Node")
+    public String nodeId;
+
+    @Label("Dependencies")
+    public int dependencies;
+
+}
@@ -0,0 +1,28 @@
+package tool.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for the transformation of a UML model into an RDG.
+ */
+@Name("reana.Parsing")
+@Label("Model Parsing")
+@Category({"ReAna", "Parsing"})
+@Description("Transformation of a behavioral model into an RDG")
+public class ParsingEvent extends Event {
+
+    @Label("Model File")
+    public String modelFile;
+
+    @Label("Exporter")
+    public String exporter;
+
+    @Label("RDG Nodes")
+    @Description("Number of RDG nodes in the current context after the transformation")
+    public int rdgNodes;
+
+}
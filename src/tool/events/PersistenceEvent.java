@@ -0,0 +1,33 @@
+package tool.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for dumping or loading the ADD of an analyzed RDG node.
+ */
+@Name("reana.Persistence")
+@Label("ADD Persistence")
+@Category({"ReAna", "Persistence"})
+@Description("Dump or load of a persisted ADD")
+public class PersistenceEvent extends Event {
+
+    public static final String DUMP = "dump";
+    public static final String LOAD = "load";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Function")
+    public String function;
+
+    @Label("File")
+    public String file;
+
+    @Label("ADD Size")
+    public int addSize;
+
+}
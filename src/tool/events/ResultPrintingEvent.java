@@ -0,0 +1,21 @@
+package tool.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for printing the results of an analysis.
+ */
+@Name("reana.ResultPrinting")
+@Label("Result Printing")
+@Category({"ReAna", "Reporting"})
+@Description("Printing of the analysis results")
+public class ResultPrintingEvent extends Event {
+
+    @Label("Results")
+    public int results;
+
+}
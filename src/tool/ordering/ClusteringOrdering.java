@@ -0,0 +1,77 @@
+package tool.ordering;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Co-occurrence clustering: variables which appear together in many
+ * (small) clauses are placed next to each other.
+ *
+ * Every hyperedge with n variables adds 1/(n-1) to the affinity of each
+ * pair of its variables. Starting from the variable with the highest
+ * total affinity, the order is built greedily by appending the unplaced
+ * variable with the highest affinity to the variables already placed
+ * (ties are broken by first appearance).
+ *
+ * @author thiago
+ *
+ */
+public class ClusteringOrdering implements IVariableOrderingHeuristic {
+
+    @Override
+    public List<String> computeOrder(VariableHypergraph hypergraph) {
+        List<String> variables = hypergraph.getVariables();
+        Map<String, Map<String, Double>> affinity = new HashMap<String, Map<String, Double>>();
+        Map<String, Double> totalAffinity = new HashMap<String, Double>();
+
+        for (Set<String> edge : hypergraph.getHyperedges()) {
+            if (edge.size() < 2) {
+                continue;
+            }
+            double weight = 1.0 / (edge.size() - 1);
+            for (String a : edge) {
+                for (String b : edge) {
+                    if (!a.equals(b)) {
+                        affinity.computeIfAbsent(a, v -> new HashMap<String, Double>()).merge(b, weight, Double::sum);
+                        totalAffinity.merge(a, weight, Double::sum);
+                    }
+                }
+            }
+        }
+
+        Set<String> placed = new LinkedHashSet<String>();
+        // Affinity of every unplaced variable to the placed ones.
+        Map<String, Double> attraction = new HashMap<String, Double>();
+        while (placed.size() < variables.size()) {
+            String next = null;
+            double nextScore = -1;
+            for (String variable : variables) {
+                if (placed.contains(variable)) {
+                    continue;
+                }
+                // Once the current cluster is exhausted (no attraction left),
+                // the seed of the next one is chosen by total affinity.
+                double score = attraction.isEmpty()
+                        ? totalAffinity.getOrDefault(variable, 0.0)
+                        : attraction.getOrDefault(variable, 0.0);
+                if (score > nextScore) {
+                    next = variable;
+                    nextScore = score;
+                }
+            }
+            placed.add(next);
+            attraction.remove(next);
+            for (Map.Entry<String, Double> neighbor : affinity.getOrDefault(next, new HashMap<String, Double>()).entrySet()) {
+                if (!placed.contains(neighbor.getKey())) {
+                    attraction.merge(neighbor.getKey(), neighbor.getValue(), Double::sum);
+                }
+            }
+        }
+        return new ArrayList<String>(placed);
+    }
+
+}
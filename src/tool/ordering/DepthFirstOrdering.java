@@ -0,0 +1,74 @@
+package tool.ordering;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Orders variables by a depth-first traversal of the feature tree
+ * recovered from the feature model clauses, so that every feature is
+ * placed right below its parent and next to its siblings.
+ *
+ * A binary clause {@code (P || !C)} (i.e., C implies P) is taken as
+ * evidence that P is the parent of C. Traversal starts at unit clauses
+ * (the root feature). Variables not reached this way (e.g., those only
+ * occurring in presence conditions) start new traversals in order of
+ * first appearance.
+ *
+ * @author thiago
+ *
+ */
+public class DepthFirstOrdering implements IVariableOrderingHeuristic {
+
+    @Override
+    public List<String> computeOrder(VariableHypergraph hypergraph) {
+        Map<String, Set<String>> children = new HashMap<String, Set<String>>();
+        List<String> roots = new ArrayList<String>();
+
+        for (List<String> clause : hypergraph.getClauses()) {
+            if (clause.size() == 1 && !VariableHypergraph.isNegative(clause.get(0))) {
+                roots.add(clause.get(0));
+            } else if (clause.size() == 2
+                    && VariableHypergraph.isNegative(clause.get(0)) != VariableHypergraph.isNegative(clause.get(1))) {
+                String parent = VariableHypergraph.isNegative(clause.get(0)) ? clause.get(1) : clause.get(0);
+                String child = VariableHypergraph.toVariable(VariableHypergraph.isNegative(clause.get(0)) ? clause.get(0) : clause.get(1));
+                children.computeIfAbsent(parent, p -> new LinkedHashSet<String>()).add(child);
+            }
+        }
+
+        Set<String> visited = new LinkedHashSet<String>();
+        for (String root : roots) {
+            visit(root, children, visited);
+        }
+        for (String variable : hypergraph.getVariables()) {
+            visit(variable, children, visited);
+        }
+        return new ArrayList<String>(visited);
+    }
+
+    /**
+     * Iterative pre-order traversal (feature trees may be deep enough
+     * to make recursion risky).
+     */
+    private void visit(String start, Map<String, Set<String>> children, Set<String> visited) {
+        List<String> stack = new ArrayList<String>();
+        stack.add(start);
+        while (!stack.isEmpty()) {
+            String current = stack.remove(stack.size() - 1);
+            if (!visited.add(current)) {
+                continue;
+            }
+            List<String> next = new ArrayList<String>(children.getOrDefault(current, new LinkedHashSet<String>()));
+            // Push in reverse so that siblings are visited in clause order.
+            for (int i = next.size() - 1; i >= 0; i--) {
+                if (!visited.contains(next.get(i))) {
+                    stack.add(next.get(i));
+                }
+            }
+        }
+    }
+
+}
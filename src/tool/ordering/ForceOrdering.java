@@ -0,0 +1,93 @@
+package tool.ordering;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FORCE heuristic (Aloul, Markov and Sakallah): every hyperedge pulls its
+ * variables towards its center of gravity. Each iteration places every
+ * variable at the mean center of gravity of its hyperedges and re-sorts
+ * them; iteration stops once the total span of hyperedges no longer
+ * decreases.
+ *
+ * @author thiago
+ *
+ */
+public class ForceOrdering implements IVariableOrderingHeuristic {
+    private static final int MAX_ITERATIONS = 100;
+
+    @Override
+    public List<String> computeOrder(VariableHypergraph hypergraph) {
+        List<String> order = new ArrayList<String>(hypergraph.getVariables());
+        List<Set<String>> hyperedges = hypergraph.getHyperedges();
+
+        Map<String, Integer> positions = toPositions(order);
+        List<String> bestOrder = order;
+        long bestSpan = span(hyperedges, positions);
+
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            Map<String, Double> forceSum = new HashMap<String, Double>();
+            Map<String, Integer> degree = new HashMap<String, Integer>();
+            for (Set<String> edge : hyperedges) {
+                double centerOfGravity = 0;
+                for (String variable : edge) {
+                    centerOfGravity += positions.get(variable);
+                }
+                centerOfGravity /= edge.size();
+                for (String variable : edge) {
+                    forceSum.merge(variable, centerOfGravity, Double::sum);
+                    degree.merge(variable, 1, Integer::sum);
+                }
+            }
+
+            final Map<String, Integer> currentPositions = positions;
+            Map<String, Double> tentative = new HashMap<String, Double>();
+            for (String variable : order) {
+                Integer edges = degree.get(variable);
+                tentative.put(variable, (edges == null) ? currentPositions.get(variable) : forceSum.get(variable) / edges);
+            }
+            List<String> newOrder = new ArrayList<String>(order);
+            newOrder.sort(Comparator.<String>comparingDouble(tentative::get)
+                          .thenComparingInt(currentPositions::get));
+
+            Map<String, Integer> newPositions = toPositions(newOrder);
+            long newSpan = span(hyperedges, newPositions);
+            if (newSpan >= bestSpan) {
+                break;
+            }
+            bestSpan = newSpan;
+            bestOrder = newOrder;
+            order = newOrder;
+            positions = newPositions;
+        }
+        return bestOrder;
+    }
+
+    private static Map<String, Integer> toPositions(List<String> order) {
+        Map<String, Integer> positions = new HashMap<String, Integer>();
+        for (int i = 0; i < order.size(); i++) {
+            positions.put(order.get(i), i);
+        }
+        return positions;
+    }
+
+    private static long span(List<Set<String>> hyperedges, Map<String, Integer> positions) {
+        long total = 0;
+        for (Set<String> edge : hyperedges) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (String variable : edge) {
+                int position = positions.get(variable);
+                min = Math.min(min, position);
+                max = Math.max(max, position);
+            }
+            total += max - min;
+        }
+        return total;
+    }
+
+}
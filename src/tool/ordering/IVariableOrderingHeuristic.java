@@ -0,0 +1,22 @@
+package tool.ordering;
+
+import java.util.List;
+
+/**
+ * Interface for static variable ordering heuristics.
+ * @author thiago
+ *
+ */
+public interface IVariableOrderingHeuristic {
+
+    /**
+     * Computes an order for all variables in the given hypergraph.
+     *
+     * @param hypergraph Variables and the clauses (or presence conditions)
+     *          relating them.
+     * @return every variable of {@code hypergraph}, from the top-most
+     *          ADD level to the bottom-most one.
+     */
+    public List<String> computeOrder(VariableHypergraph hypergraph);
+
+}
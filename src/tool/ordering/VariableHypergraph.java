@@ -0,0 +1,118 @@
+package tool.ordering;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hypergraph whose vertices are feature variables and whose hyperedges are
+ * the clauses of a CNF feature model plus the variable sets of presence
+ * conditions.
+ *
+ * Variables are kept in order of first appearance (feature model first),
+ * which is roughly the order in which the expression parser would
+ * otherwise declare them.
+ *
+ * @author thiago
+ *
+ */
+public class VariableHypergraph {
+    private static final Pattern LITERAL = Pattern.compile("(!?)\\s*([A-Za-z_][A-Za-z0-9_]*)");
+
+    private List<String> variables;
+    private List<List<String>> clauses;
+    private List<Set<String>> hyperedges;
+
+    private VariableHypergraph() {
+        this.variables = new ArrayList<String>();
+        this.clauses = new ArrayList<List<String>>();
+        this.hyperedges = new ArrayList<Set<String>>();
+    }
+
+    /**
+     * @param featureModel CNF view of the feature model, with clauses
+     *          separated by {@code &&} and literals by {@code ||}.
+     * @param presenceConditions Boolean expressions over features.
+     */
+    public static VariableHypergraph fromFeatureModel(String featureModel, Collection<String> presenceConditions) {
+        VariableHypergraph hypergraph = new VariableHypergraph();
+        Set<String> seen = new LinkedHashSet<String>();
+
+        for (String clause : featureModel.split("&&")) {
+            List<String> literals = parseLiterals(clause);
+            if (literals.isEmpty()) {
+                continue;
+            }
+            Set<String> edge = new LinkedHashSet<String>();
+            for (String literal : literals) {
+                edge.add(toVariable(literal));
+            }
+            seen.addAll(edge);
+            hypergraph.clauses.add(literals);
+            hypergraph.hyperedges.add(edge);
+        }
+
+        for (String presenceCondition : presenceConditions) {
+            Set<String> edge = new LinkedHashSet<String>();
+            for (String literal : parseLiterals(presenceCondition)) {
+                edge.add(toVariable(literal));
+            }
+            if (!edge.isEmpty()) {
+                seen.addAll(edge);
+                hypergraph.hyperedges.add(edge);
+            }
+        }
+
+        hypergraph.variables.addAll(seen);
+        return hypergraph;
+    }
+
+    /**
+     * Variables in order of first appearance.
+     */
+    public List<String> getVariables() {
+        return Collections.unmodifiableList(variables);
+    }
+
+    /**
+     * Feature model clauses as lists of literals. Negative literals
+     * are prefixed by {@code !}.
+     */
+    public List<List<String>> getClauses() {
+        return Collections.unmodifiableList(clauses);
+    }
+
+    /**
+     * Variable sets of every clause and every presence condition.
+     */
+    public List<Set<String>> getHyperedges() {
+        return Collections.unmodifiableList(hyperedges);
+    }
+
+    static boolean isNegative(String literal) {
+        return literal.startsWith("!");
+    }
+
+    static String toVariable(String literal) {
+        return isNegative(literal) ? literal.substring(1) : literal;
+    }
+
+    private static List<String> parseLiterals(String expression) {
+        List<String> literals = new ArrayList<String>();
+        Matcher matcher = LITERAL.matcher(expression);
+        while (matcher.find()) {
+            String name = matcher.group(2);
+            if (name.equals("true") || name.equals("false")) {
+                continue;
+            }
+            literals.add(matcher.group(1) + name);
+        }
+        return literals;
+    }
+
+}
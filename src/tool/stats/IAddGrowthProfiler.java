@@ -0,0 +1,32 @@
+package tool.stats;
+
+import jadd.ADD;
+
+import java.io.PrintStream;
+import java.util.Collection;
+
+/**
+ * Interface for a profiler of the growth of ADDs throughout the derivation
+ * (Sigma_v) of RDG nodes' reliability functions.
+ */
+public interface IAddGrowthProfiler {
+
+    /**
+     * Records an ADD operation performed while deriving the reliability
+     * function of an RDG node.
+     *
+     * @param node Id of the RDG node being derived.
+     * @param operation Name of the operation (e.g., "solve", "prune").
+     * @param operands ADDs on which the operation was applied.
+     * @param result Resulting ADD.
+     * @param elapsedNanos
+     */
+    public void recordOperation(String node, String operation, Collection<ADD> operands, ADD result, long elapsedNanos);
+
+    /**
+     * Reports the nodes and operations which grew ADDs the most, dumping
+     * the ADDs involved in the worst ones.
+     */
+    public void printStats(PrintStream out);
+
+}
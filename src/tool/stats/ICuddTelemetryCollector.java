@@ -0,0 +1,29 @@
+package tool.stats;
+
+import jadd.JADD;
+
+import java.io.PrintStream;
+
+/**
+ * Interface for a collector which periodically samples the native memory
+ * and table statistics of a CUDD manager, correlating them with the analysis
+ * phase which is running.
+ */
+public interface ICuddTelemetryCollector {
+
+    /**
+     * Starts sampling the manager of {@code jadd} in the background.
+     */
+    public void start(JADD jadd);
+    /**
+     * Sets the analysis phase to which subsequent samples are attributed.
+     */
+    public void setPhase(String phase);
+    /**
+     * Stops sampling, after taking a last sample.
+     */
+    public void stop();
+
+    public void printStats(PrintStream out);
+
+}
@@ -0,0 +1,40 @@
+package tool.stats;
+
+import jadd.ADD;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Interface for a per-RDG-node metrics collector for the ReAna tool.
+ *
+ * Implementations must be thread-safe, since nodes are model checked
+ * concurrently.
+ */
+public interface INodeMetrics {
+
+    public void recordModelChecking(String node, long elapsedNanos);
+    public void recordFormulaSize(String node, int size);
+    public void recordLift(String node, long elapsedNanos);
+    /**
+     * @param derived ADD resulting from the derivation, whose size is recorded.
+     */
+    public void recordDerivation(String node, long elapsedNanos, ADD derived);
+    /**
+     * Records whether the value of a node was reused from a previous
+     * analysis (or else impacted by an evolution).
+     */
+    public void recordReuse(String node, boolean reused);
+    /**
+     * Records the wall-clock time of a whole analysis phase (e.g., Alpha_v).
+     */
+    public void recordPhase(String phase, long elapsedNanos);
+
+    public void printStats(PrintStream out);
+    /**
+     * Writes all collected metrics to a file. The format (JSON or CSV)
+     * is up to the implementation.
+     */
+    public void export(String path) throws IOException;
+
+}
@@ -0,0 +1,29 @@
+package tool.stats;
+
+import jadd.JADD;
+
+import java.io.PrintStream;
+
+public class NoopCuddTelemetryCollector implements ICuddTelemetryCollector {
+
+    @Override
+    public void start(JADD jadd) {
+        // No-op
+    }
+
+    @Override
+    public void setPhase(String phase) {
+        // No-op
+    }
+
+    @Override
+    public void stop() {
+        // No-op
+    }
+
+    @Override
+    public void printStats(PrintStream out) {
+        // No-op
+    }
+
+}
@@ -0,0 +1,49 @@
+package tool.stats;
+
+import jadd.ADD;
+
+import java.io.PrintStream;
+
+public class NoopNodeMetrics implements INodeMetrics {
+
+    @Override
+    public void recordModelChecking(String node, long elapsedNanos) {
+        // No-op
+    }
+
+    @Override
+    public void recordFormulaSize(String node, int size) {
+        // No-op
+    }
+
+    @Override
+    public void recordLift(String node, long elapsedNanos) {
+        // No-op
+    }
+
+    @Override
+    public void recordDerivation(String node, long elapsedNanos, ADD derived) {
+        // No-op
+    }
+
+    @Override
+    public void recordReuse(String node, boolean reused) {
+        // No-op
+    }
+
+    @Override
+    public void recordPhase(String phase, long elapsedNanos) {
+        // No-op
+    }
+
+    @Override
+    public void printStats(PrintStream out) {
+        // No-op
+    }
+
+    @Override
+    public void export(String path) {
+        // No-op
+    }
+
+}
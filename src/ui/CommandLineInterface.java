@@ -14,10 +14,12 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.DoubleSummaryStatistics;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.function.BiFunction;
@@ -41,26 +43,45 @@ import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import paramwrapper.IModelCollector;
+import paramwrapper.ModelCheckerPool;
 import parsing.SplGeneratorModels.SplGeneratorModelingAPI;
 import parsing.exceptions.InvalidNodeClassException;
 import parsing.exceptions.InvalidNodeType;
 import parsing.exceptions.InvalidNumberOfOperandsException;
 import parsing.exceptions.InvalidTagException;
 import parsing.exceptions.UnsupportedFragmentTypeException;
+import splar.core.fm.FeatureModel;
+import splar.core.fm.FeatureModelException;
+import splar.core.fm.XMLFeatureModel;
 import tool.Analyzer;
 import tool.CyclicRdgException;
 import tool.PruningStrategyFactory;
+import tool.RDGContext;
 import tool.RDGNode;
 import tool.UnknownFeatureException;
+import tool.VariableOrdering;
+import tool.VariableOrderingFactory;
+import tool.analyzers.ADDReliabilityResults;
 import tool.analyzers.IReliabilityAnalysisResults;
+import tool.events.ParsingEvent;
+import tool.events.PersistenceEvent;
+import tool.events.ResultPrintingEvent;
+import tool.ordering.VariableHypergraph;
 import tool.stats.CollectibleTimers;
+import tool.stats.IAddGrowthProfiler;
+import tool.stats.ICuddTelemetryCollector;
 import tool.stats.IFormulaCollector;
 import tool.stats.IMemoryCollector;
+import tool.stats.INodeMetrics;
 import tool.stats.ITimeCollector;
 import tool.stats.IReuseCollector;
+import ui.stats.AddGrowthProfiler;
 import ui.stats.StatsCollectorFactory;
+import expressionsolver.FeatureModelCompiler;
+import expressionsolver.FeatureTreeCompiler;
 import jadd.ADD;
 import jadd.JADD;
+import jadd.ManagerConfig;
 import jadd.UnrecognizedVariableException;
 
 /**
@@ -72,12 +93,19 @@ import jadd.UnrecognizedVariableException;
 public class CommandLineInterface {
     private static final Logger LOGGER = Logger.getLogger(CommandLineInterface.class.getName());
     private static final PrintStream OUTPUT = System.out;
+    // Not ending in .add, so that they are not mistaken for RDG nodes' analyses.
+    private static final String FEATURE_MODEL_FILE = "featureModel.fm";
+    private static final String FEATURE_MODEL_CLAUSES_FILE = "featureModel.clauses";
+    private static final String FEATURE_TREE_DIGEST_FILE = "featureModel.tree";
 
     private static IMemoryCollector memoryCollector;
     private static ITimeCollector timeCollector;
     private static IFormulaCollector formulaCollector;
     private static IModelCollector modelCollector;
     private static IReuseCollector reuseCollector;
+    private static INodeMetrics nodeMetrics;
+    private static ICuddTelemetryCollector cuddTelemetryCollector;
+    private static IAddGrowthProfiler addGrowthProfiler;
 
     private CommandLineInterface() {
 	// NO-OP
@@ -102,12 +130,20 @@ public class CommandLineInterface {
 	    RDGNode rdgRoot = buildRDG(options);
 	    memoryCollector.takeSnapshot("after model parsing");
 
-	    Analyzer analyzer = makeAnalyzer(options, 0);
+	    Analyzer analyzer = makeAnalyzer(options, rdgRoot, 0);
+	    analyzer.setNodeMetrics(nodeMetrics);
+	    setUpAddGrowthProfiler(options, analyzer);
+	    setUpIntermediateAddSpilling(options, analyzer);
 	    Stream<Collection<String>> targetConfigurations = getTargetConfigurations(options, analyzer);
 
 	    memoryCollector.takeSnapshot("before evaluation");
+	    cuddTelemetryCollector.setPhase("evaluation");
 	    long analysisStartTime = System.currentTimeMillis();
 	    Stream<Collection<String>> validConfigs = targetConfigurations.filter(analyzer::isValidConfiguration);
+	    if (options.hasSampling()) {
+		// Samples may repeat, but each product needs to be evaluated only once.
+		validConfigs = validConfigs.distinct();
+	    }
 
 	    IReliabilityAnalysisResults familyReliability =  evaluateReliability(analyzer,
 										 rdgRoot,
@@ -117,11 +153,14 @@ public class CommandLineInterface {
 
 	    long totalAnalysisTime = System.currentTimeMillis() - analysisStartTime;
 	    memoryCollector.takeSnapshot("after evaluation");
+	    cuddTelemetryCollector.setPhase("reporting");
 
 	    if (!options.hasSuppressReport()) {
 	        if (options.hasPrintAllConfigurations()) {
 		    // This optimizes memory when printing results for all configurations.
 	            basePrintAnalysisResults(familyReliability.getNumberOfResults(), () -> familyReliability.printAllResults(OUTPUT));
+	        } else if (options.hasSampling()) {
+		    printSampleResults(options, getTargetConfigurations(options, analyzer), familyReliability);
 	        } else {
 		    Map<Boolean, List<Collection<String>>> splitConfigs = getTargetConfigurations(options, analyzer)
 			    .collect(Collectors.partitioningBy(analyzer::isValidConfiguration));
@@ -129,14 +168,26 @@ public class CommandLineInterface {
 		    }
 	    }
 
+	    if (options.hasAggregateQueries()) {
+	        printAggregateResults(options, familyReliability);
+	    }
+
+	    cuddTelemetryCollector.stop();
 	    if (options.hasStatsEnabled()) {
-	        printStats(OUTPUT, familyReliability, rdgRoot);
+	        printStats(OUTPUT, analyzer, familyReliability, rdgRoot);
+	    }
+	    if (options.getMetricsOutputPath() != null) {
+	        exportMetrics(options.getMetricsOutputPath());
+	    }
+	    if (options.hasAddGrowthProfile()) {
+	        addGrowthProfiler.printStats(OUTPUT);
 	    }
 	    long totalRunningTime = System.currentTimeMillis() - startTime;
 	    OUTPUT.println("Total analysis time: " +  totalAnalysisTime + " ms");
 	    OUTPUT.println("Total running time: " +  totalRunningTime + " ms");
 
 	    persistAnalysis(analyzer, analysis, options.getPersistedAnalysesPath());
+	    persistFeatureModel(options, analyzer);
 
 	}
 
@@ -247,36 +298,180 @@ public class CommandLineInterface {
      * @param options
      * @return
      */
-    private static Analyzer makeAnalyzer(Options options, int i) {
+    private static Analyzer makeAnalyzer(Options options, RDGNode rdgRoot, int i) {
 	File featureModelFile = new File(options.getFeatureModelFilePath());
-	String featureModel = readFeatureModel(featureModelFile);
+	FeatureModel featureTree = isFeatureTree(featureModelFile) ? readFeatureTree(featureModelFile) : null;
+	// The CNF view of a feature tree still drives CUDD sizing and static variable orderings.
+	String featureModel = (featureTree != null) ? featureTree.FM2JavaCNF() : readFeatureModel(featureModelFile);
 
-	String paramPath = options.getParamPath();
-	Analyzer analyzer = new Analyzer(featureModel,
-					 paramPath,
-					 timeCollector,
-					 formulaCollector,
-					 modelCollector,
-					 reuseCollector,
-					 i);
+	int rdgNodes = RDGContext.getCurrent().getNodes().size();
+	try {
+	    rdgNodes = rdgRoot.getDependenciesTransitiveClosure().size();
+	} catch (CyclicRdgException e) {
+	    LOGGER.warning("Cyclic dependency detected in RDG. Sizing the CUDD manager by all known RDG nodes.");
+	}
+	JADD jadd = new JADD(makeManagerConfig(options, featureModel, rdgNodes));
+	jadd.setReorderingPolicy(options.getReorderingPolicy());
+	cuddTelemetryCollector.start(jadd);
+	cuddTelemetryCollector.setPhase("feature model encoding");
+	if (options.getVariableOrdering() != VariableOrdering.NONE) {
+	    applyInitialVariableOrder(jadd, featureModel, rdgRoot, options.getVariableOrdering());
+	}
+
+	Analyzer analyzer = newAnalyzer(options, jadd, featureTree, featureModel, i);
 	analyzer.setConcurrencyStrategy(options.getConcurrencyStrategy());
+	analyzer.setPresenceConditionEquivalence(options.getPresenceConditionEquivalence());
+	analyzer.setModelReduction(!options.isModelReductionDisabled());
+	analyzer.setModelCheckerPool(new ModelCheckerPool(options.getModelCheckerWorkers(),
+							  options.getModelCheckerTimeout()));
 	return analyzer;
     }
 
+    /**
+     * Encodes the feature model structurally if it is a feature tree,
+     * or by conjoining its clauses otherwise.
+     */
+    private static Analyzer newAnalyzer(Options options, JADD jadd, FeatureModel featureTree, String featureModel, int i) {
+	String paramPath = options.getParamPath();
+	if (featureTree != null) {
+	    return new Analyzer(jadd,
+				new FeatureTreeCompiler(jadd).compile(featureTree),
+				paramPath,
+				timeCollector,
+				formulaCollector,
+				modelCollector,
+				reuseCollector,
+				i);
+	}
+	return new Analyzer(jadd,
+			    featureModel,
+			    options.getFeatureModelConjunctionStrategy(),
+			    paramPath,
+			    timeCollector,
+			    formulaCollector,
+			    modelCollector,
+			    reuseCollector,
+			    i);
+    }
+
+    /**
+     * Encodes the feature model of an evolution by conjoining the clauses
+     * added since the previous one to its persisted ADD. Conjunctions cannot
+     * be undone, so the feature model is encoded from scratch if clauses
+     * were removed (or if there is no previous feature model).
+     *
+     * The CNF view of a feature tree does not capture every group
+     * cardinality, so feature trees are also encoded from scratch whenever
+     * the tree itself changed. Only cross-tree constraints may be added.
+     */
+    private static Analyzer newEvolvedAnalyzer(Options options, JADD jadd, FeatureModel featureTree, String featureModel, int i) {
+	String persistedAnalysesPath = options.getPersistedAnalysesPath();
+	File previousModelFile = new File(persistedAnalysesPath + FEATURE_MODEL_FILE);
+	File previousClausesFile = new File(persistedAnalysesPath + FEATURE_MODEL_CLAUSES_FILE);
+	if (!previousModelFile.exists() || !previousClausesFile.exists()) {
+	    return newAnalyzer(options, jadd, featureTree, featureModel, i);
+	}
+
+	Set<String> clauses = FeatureModelCompiler.getClauses(featureModel);
+	Set<String> previousClauses = null;
+	String previousTreeDigest = null;
+	try {
+	    previousClauses = new HashSet<String>(Files.readAllLines(previousClausesFile.toPath(), Charset.forName("UTF-8")));
+	    File previousTreeDigestFile = new File(persistedAnalysesPath + FEATURE_TREE_DIGEST_FILE);
+	    if (previousTreeDigestFile.exists()) {
+		previousTreeDigest = new String(Files.readAllBytes(previousTreeDigestFile.toPath()), Charset.forName("UTF-8")).trim();
+	    }
+	} catch (IOException e) {
+	    LOGGER.log(Level.WARNING, "Error reading the previous feature model's clauses. Encoding the feature model from scratch.", e);
+	    return newAnalyzer(options, jadd, featureTree, featureModel, i);
+	}
+	String treeDigest = (featureTree != null) ? FeatureTreeCompiler.getTreeDigest(featureTree) : null;
+	if (!Objects.equals(treeDigest, previousTreeDigest)) {
+	    LOGGER.info("The feature tree changed. Encoding the feature model from scratch.");
+	    return newAnalyzer(options, jadd, featureTree, featureModel, i);
+	}
+	if (!clauses.containsAll(previousClauses)) {
+	    LOGGER.info("Clauses were removed from the feature model. Encoding it from scratch.");
+	    return newAnalyzer(options, jadd, featureTree, featureModel, i);
+	}
+
+	List<String> addedClauses = new LinkedList<String>(clauses);
+	addedClauses.removeAll(previousClauses);
+	LOGGER.info("Conjoining " + addedClauses.size() + " added clauses to the previous feature model.");
+	ADD previousModel = loadAnalysis(jadd, FEATURE_MODEL_FILE, previousModelFile.getPath());
+	ADD evolvedModel = new FeatureModelCompiler(jadd, options.getFeatureModelConjunctionStrategy()).extend(previousModel, addedClauses);
+	previousModel.release();
+	if (evolvedModel == null) {
+	    LOGGER.warning("Error parsing the added clauses. Encoding the feature model from scratch.");
+	    return newAnalyzer(options, jadd, featureTree, featureModel, i);
+	}
+	return new Analyzer(jadd,
+			    evolvedModel,
+			    options.getParamPath(),
+			    timeCollector,
+			    formulaCollector,
+			    modelCollector,
+			    reuseCollector,
+			    i);
+    }
+
+    /**
+     * Sizes the CUDD manager by the number of features and RDG nodes
+     * if auto-tuning is enabled (under the explicit memory cap, if any),
+     * with explicit parameters taking precedence either way.
+     */
+    private static ManagerConfig makeManagerConfig(Options options, String featureModel, int rdgNodes) {
+	ManagerConfig config = ManagerConfig.DEFAULT;
+	ManagerConfig overrides = options.getCuddManagerOverrides();
+	if (options.isCuddAutoTuningEnabled()) {
+	    int variables = VariableHypergraph.fromFeatureModel(featureModel, new LinkedList<String>()).getVariables().size();
+	    config = (overrides.getMaxMemory() > 0)
+	            ? ManagerConfig.autoTuneWithMaxMemory(variables, rdgNodes, overrides.getMaxMemory())
+	            : ManagerConfig.autoTune(variables, rdgNodes);
+	}
+	config = config.overriddenBy(overrides);
+	LOGGER.info("CUDD manager: " + config);
+	return config;
+    }
+
+    /**
+     * Computes a static variable order from the feature model and the
+     * presence conditions of the RDG and applies it before the feature
+     * model is encoded. Later evolutions reuse the persisted order instead.
+     */
+    private static void applyInitialVariableOrder(JADD jadd, String featureModel, RDGNode rdgRoot, VariableOrdering ordering) {
+	List<String> presenceConditions = new LinkedList<String>();
+	try {
+	    for (RDGNode node : rdgRoot.getDependenciesTransitiveClosure()) {
+		presenceConditions.add(node.getPresenceCondition());
+	    }
+	} catch (CyclicRdgException e) {
+	    LOGGER.warning("Cyclic dependency detected in RDG. Ordering variables by the feature model alone.");
+	}
+	VariableHypergraph hypergraph = VariableHypergraph.fromFeatureModel(featureModel, presenceConditions);
+	List<String> variableOrder = VariableOrderingFactory.createVariableOrdering(ordering).computeOrder(hypergraph);
+	LOGGER.fine("Initial variable order (" + ordering + "): " + variableOrder);
+	jadd.setInitialVariableOrder(variableOrder);
+    }
+
     private static Analyzer makeAnalyzer(Options options, int i, boolean evol) {
 	File featureModelFile = new File(options.getFeatureModelFilePath());
-	String featureModel = readFeatureModel(featureModelFile);
+	FeatureModel featureTree = isFeatureTree(featureModelFile) ? readFeatureTree(featureModelFile) : null;
+	String featureModel = (featureTree != null) ? featureTree.FM2JavaCNF() : readFeatureModel(featureModelFile);
 
-	String paramPath = options.getParamPath();
-	Analyzer analyzer = new Analyzer(featureModel,
-					 paramPath,
-					 timeCollector,
-					 formulaCollector,
-					 modelCollector,
-					 reuseCollector,
-					 i,
-					 evol);
+	// The RDG is only built later on, so the previous one (i.e., one
+	// persisted ADD per node) gives its approximate size.
+	File[] persistedAnalyses = new File(options.getPersistedAnalysesPath()).listFiles((dir, file) -> file.endsWith(".add"));
+	int rdgNodes = (persistedAnalyses != null) ? persistedAnalyses.length : 0;
+	JADD jadd = new JADD("variableStore.add", makeManagerConfig(options, featureModel, rdgNodes));
+	jadd.setReorderingPolicy(options.getReorderingPolicy());
+
+	Analyzer analyzer = newEvolvedAnalyzer(options, jadd, featureTree, featureModel, i);
 	analyzer.setConcurrencyStrategy(options.getConcurrencyStrategy());
+	analyzer.setPresenceConditionEquivalence(options.getPresenceConditionEquivalence());
+	analyzer.setModelReduction(!options.isModelReductionDisabled());
+	analyzer.setModelCheckerPool(new ModelCheckerPool(options.getModelCheckerWorkers(),
+							  options.getModelCheckerTimeout()));
 	return analyzer;
     }
 
@@ -284,17 +479,41 @@ public class CommandLineInterface {
      * @param options
      */
     private static void initializeStatsCollectors(Options options) {
-        StatsCollectorFactory statsCollectorFactory = new StatsCollectorFactory(options.hasStatsEnabled());
+        // Metrics are only exported if collected in the first place.
+        StatsCollectorFactory statsCollectorFactory = new StatsCollectorFactory(options.hasStatsEnabled()
+                                                                                || options.getMetricsOutputPath() != null);
         memoryCollector = statsCollectorFactory.createMemoryCollector();
         timeCollector = statsCollectorFactory.createTimeCollector();
         formulaCollector = statsCollectorFactory.createFormulaCollector();
         modelCollector = statsCollectorFactory.createModelCollector();
         reuseCollector = statsCollectorFactory.createReuseCollector();
+        nodeMetrics = statsCollectorFactory.createNodeMetrics();
+        cuddTelemetryCollector = statsCollectorFactory.createCuddTelemetryCollector(options.getCuddSamplingInterval());
+    }
+
+    private static void setUpAddGrowthProfiler(Options options, Analyzer analyzer) {
+        if (options.hasAddGrowthProfile()) {
+            addGrowthProfiler = new AddGrowthProfiler(analyzer.getJadd(),
+                                                      options.getAddGrowthProfileSize(),
+                                                      options.getAddGrowthDumpsPath());
+            analyzer.setAddGrowthProfiler(addGrowthProfiler);
+        }
+    }
+
+    private static void exportMetrics(String metricsOutputPath) {
+        try {
+            nodeMetrics.export(metricsOutputPath);
+        } catch (IOException e) {
+            LOGGER.severe("Could not write metrics to " + metricsOutputPath);
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        }
     }
 
     private static Stream<Collection<String>> getTargetConfigurations(Options options, Analyzer analyzer) {
 	if (options.hasPrintAllConfigurations()) {
 	    return analyzer.getValidConfigurations();
+	} else if (options.hasSampling()) {
+	    return analyzer.getSampledConfigurations(options.getSampleSize(), options.getSeed());
 	} else {
 	    Set<Collection<String>> configurations = new HashSet<Collection<String>>();
 
@@ -321,11 +540,15 @@ public class CommandLineInterface {
     }
 
     private static void basePrintAnalysisResults(int numResults, Runnable printer) {
+	ResultPrintingEvent event = new ResultPrintingEvent();
+	event.begin();
 	OUTPUT.println("Configurations:");
 	OUTPUT.println("=========================================");
 	printer.run();
 	OUTPUT.println("=========================================");
 	OUTPUT.println(">>>> Total valid configurations: " + numResults);
+	event.results = numResults;
+	event.commit();
     }
 
     private static void printAnalysisResults(Map<Boolean, List<Collection<String>>> splitConfigs, IReliabilityAnalysisResults familyReliability) {
@@ -333,14 +556,12 @@ public class CommandLineInterface {
 	    List<Collection<String>> validConfigs = splitConfigs.get(true);
 	    // Ordered report
 	    validConfigs.sort((c1, c2) -> c1.toString().compareTo(c2.toString()));
+	    double[] reliabilities = getResults(familyReliability, validConfigs);
+	    int i = 0;
 	    for (Collection<String> validConfig: validConfigs) {
-	        try {
-	            String[] configurationAsArray = validConfig.toArray(new String[validConfig.size()]);
-	            printSingleConfiguration(validConfig.toString(),
-	                    familyReliability.getResult(configurationAsArray));
-	        } catch (UnknownFeatureException e) {
-	            LOGGER.severe("Unrecognized feature: " + e.getFeatureName());
-	            LOGGER.log(Level.SEVERE, e.toString(), e);
+	        double reliability = reliabilities[i++];
+	        if (!Double.isNaN(reliability)) {
+	            printSingleConfiguration(validConfig.toString(), reliability);
 	        }
 	    }
 	    for (Collection<String> invalidConfig: splitConfigs.get(false)) {
@@ -349,6 +570,121 @@ public class CommandLineInterface {
 	});
     }
 
+    /**
+     * Prints the results of the (distinct) sampled configurations, followed
+     * by a summary over the whole sample: mean reliability with a 95%
+     * confidence interval (normal approximation), minimum and maximum.
+     */
+    private static void printSampleResults(Options options, Stream<Collection<String>> samples, IReliabilityAnalysisResults familyReliability) {
+	List<Collection<String>> sampledConfigs = samples.collect(Collectors.toList());
+	if (sampledConfigs.isEmpty()) {
+	    OUTPUT.println("No valid configurations to sample from.");
+	    return;
+	}
+	// Each sample is evaluated once, for both the listing and the summary.
+	double[] sampleResults = getResults(familyReliability, sampledConfigs);
+	Map<Collection<String>, Double> distinctResults = new HashMap<Collection<String>, Double>();
+	for (int i = 0; i < sampledConfigs.size(); i++) {
+	    distinctResults.putIfAbsent(sampledConfigs.get(i), sampleResults[i]);
+	}
+	List<Collection<String>> distinctConfigs = new LinkedList<Collection<String>>(distinctResults.keySet());
+	basePrintAnalysisResults(distinctConfigs.size(), () -> {
+	    // Ordered report
+	    distinctConfigs.sort((c1, c2) -> c1.toString().compareTo(c2.toString()));
+	    for (Collection<String> config: distinctConfigs) {
+	        double reliability = distinctResults.get(config);
+	        if (!Double.isNaN(reliability)) {
+	            printSingleConfiguration(config.toString(), reliability);
+	        }
+	    }
+	});
+
+	// Samples which could not be evaluated are left out of the summary.
+	double[] reliabilities = Arrays.stream(sampleResults)
+		.filter(r -> !Double.isNaN(r))
+		.toArray();
+	if (reliabilities.length == 0) {
+	    return;
+	}
+	DoubleSummaryStatistics summary = Arrays.stream(reliabilities).summaryStatistics();
+	double mean = summary.getAverage();
+	double squaredDeviations = Arrays.stream(reliabilities).map(r -> (r - mean)*(r - mean)).sum();
+	double standardDeviation = (reliabilities.length > 1) ? Math.sqrt(squaredDeviations / (reliabilities.length - 1)) : 0;
+	double halfWidth = 1.96 * standardDeviation / Math.sqrt(reliabilities.length);
+
+	OUTPUT.println("-----------------------------");
+	OUTPUT.println("Sampled configurations: " + sampledConfigs.size()
+		       + " (" + distinctConfigs.size() + " distinct, seed " + options.getSeed() + ")");
+	OUTPUT.println("Mean reliability: " + mean + " +/- " + halfWidth + " (95% confidence)");
+	OUTPUT.println("Minimum reliability: " + summary.getMin());
+	OUTPUT.println("Maximum reliability: " + summary.getMax());
+    }
+
+    /**
+     * Answers queries over the whole family (best/worst configurations,
+     * threshold counts and mean) without enumerating configurations.
+     */
+    private static void printAggregateResults(Options options, IReliabilityAnalysisResults familyReliability) {
+	if (!(familyReliability instanceof ADDReliabilityResults)) {
+	    LOGGER.warning("Aggregate queries are only available for family-based analysis strategies.");
+	    return;
+	}
+	ADDReliabilityResults results = (ADDReliabilityResults) familyReliability;
+	OUTPUT.println("-----------------------------");
+	if (options.hasPrintBest()) {
+	    OUTPUT.println("Best configuration:");
+	    results.getBestConfigurations(1).forEach((configuration, reliability) -> printSingleConfiguration(configuration.toString(), reliability));
+	}
+	if (options.hasPrintWorst()) {
+	    OUTPUT.println("Worst configuration:");
+	    results.getWorstConfigurations(1).forEach((configuration, reliability) -> printSingleConfiguration(configuration.toString(), reliability));
+	}
+	if (options.getTopK() > 0) {
+	    OUTPUT.println("Top " + options.getTopK() + " configurations:");
+	    results.getBestConfigurations(options.getTopK()).forEach((configuration, reliability) -> printSingleConfiguration(configuration.toString(), reliability));
+	}
+	if (options.getReliabilityThreshold() != null) {
+	    OUTPUT.println("Configurations below " + options.getReliabilityThreshold() + ": "
+			   + (long) results.countConfigurationsBelow(options.getReliabilityThreshold())
+			   + " out of " + (long) results.countValidConfigurations());
+	}
+	if (options.hasPrintMean()) {
+	    OUTPUT.println("Mean reliability: " + results.getMeanReliability());
+	}
+    }
+
+    /**
+     * Evaluates all configurations in one go. If some configuration has an
+     * unrecognized feature, they are evaluated one by one instead, so that
+     * only the offending ones are skipped.
+     *
+     * @return the reliability of each configuration, or NaN for those
+     *      which could not be evaluated.
+     */
+    private static double[] getResults(IReliabilityAnalysisResults familyReliability, List<Collection<String>> configurations) {
+	List<String[]> configurationsAsArrays = configurations.stream()
+		.map(c -> c.toArray(new String[c.size()]))
+		.collect(Collectors.toList());
+	try {
+	    return familyReliability.getResults(configurationsAsArrays);
+	} catch (UnknownFeatureException e) {
+	    // Falls back to evaluating configurations individually.
+	}
+	double[] reliabilities = new double[configurationsAsArrays.size()];
+	int i = 0;
+	for (String[] configuration : configurationsAsArrays) {
+	    try {
+	        reliabilities[i] = familyReliability.getResult(configuration);
+	    } catch (UnknownFeatureException e) {
+	        LOGGER.severe("Unrecognized feature: " + e.getFeatureName());
+	        LOGGER.log(Level.SEVERE, e.toString(), e);
+	        reliabilities[i] = Double.NaN;
+	    }
+	    i++;
+	}
+	return reliabilities;
+    }
+
     private static void printSingleConfiguration(String configuration, double reliability) {
         String message = configuration + " --> ";
         if (Double.doubleToRawLongBits(reliability) != 0) {
@@ -358,17 +694,43 @@ public class CommandLineInterface {
         }
     }
 
-    private static void printStats(PrintStream out, IReliabilityAnalysisResults familyReliability, RDGNode rdgRoot) {
+    private static void printStats(PrintStream out, Analyzer analyzer, IReliabilityAnalysisResults familyReliability, RDGNode rdgRoot) {
 	out.println("-----------------------------");
 	out.println("Stats:");
 	out.println("------");
 	timeCollector.printStats(out);
+	nodeMetrics.printStats(out);
 	formulaCollector.printStats(out);
 	modelCollector.printStats(out);
 	memoryCollector.printStats(out);
+	cuddTelemetryCollector.printStats(out);
 	reuseCollector.printStats(out);
 	reuseCollector.printEvaluationReuse(out, rdgRoot);
 	familyReliability.printStats(out);
+	analyzer.getJadd().getReorderingStats().printStats(out);
+    }
+
+    /**
+     * SXFM feature trees are told apart from CNF formulas by their extension.
+     */
+    private static boolean isFeatureTree(File featureModelFile) {
+	return featureModelFile.getName().toLowerCase().endsWith(".xml");
+    }
+
+    /**
+     * @param featureModelFile SXFM file.
+     * @return the loaded feature model, whose features are identified by name.
+     */
+    private static FeatureModel readFeatureTree(File featureModelFile) {
+	FeatureModel featureTree = new XMLFeatureModel(featureModelFile.getPath(), XMLFeatureModel.USE_VARIABLE_NAME_AS_ID);
+	try {
+	    featureTree.loadModel();
+	} catch (FeatureModelException e) {
+	    LOGGER.severe("Error reading the provided Feature Model.");
+	    LOGGER.log(Level.SEVERE, e.toString(), e);
+	    System.exit(1);
+	}
+	return featureTree;
     }
 
     /**
@@ -440,8 +802,17 @@ public class CommandLineInterface {
 		}
 
 
+	ParsingEvent event = new ParsingEvent();
+	event.begin();
 	RDGNode result = modeler.transform();
+	event.end();
 	timeCollector.stopTimer(CollectibleTimers.PARSING_TIME);
+	if (event.shouldCommit()) {
+	    event.modelFile = umlModels.getPath();
+	    event.exporter = exporter;
+	    event.rdgNodes = RDGContext.getCurrent().getNodes().size();
+	    event.commit();
+	}
 
 	return result;
     }
@@ -517,14 +888,23 @@ public class CommandLineInterface {
       }
 
       initializeStatsCollectors(options);
+      analyzer.setNodeMetrics(nodeMetrics);
+      cuddTelemetryCollector.start(analyzer.getJadd());
+      setUpAddGrowthProfiler(options, analyzer);
+      setUpIntermediateAddSpilling(options, analyzer);
 
+      cuddTelemetryCollector.setPhase("model parsing");
       memoryCollector.takeSnapshot("before model parsing");
       RDGNode rdgRoot = buildRDG(options);
       memoryCollector.takeSnapshot("after model parsing");
       Stream<Collection<String>> targetConfigurations = getTargetConfigurations(options, analyzer);
       memoryCollector.takeSnapshot("before evaluation");
+      cuddTelemetryCollector.setPhase("evaluation");
       long analysisStartTime = System.currentTimeMillis();
       Stream<Collection<String>> validConfigs = targetConfigurations.filter(analyzer::isValidConfiguration);
+      if (options.hasSampling()) {
+          validConfigs = validConfigs.distinct();
+      }
 
       IReliabilityAnalysisResults familyReliability = evaluateReliabilityWithEvolution(analyzer,
 										       rdgRoot,
@@ -534,16 +914,21 @@ public class CommandLineInterface {
 										       analysis);
 
       memoryCollector.takeSnapshot("after evaluation");
+      cuddTelemetryCollector.setPhase("persistence");
 
       persistAnalysis(analyzer, analysis, persistedAnalysesPath);
+      persistFeatureModel(options, analyzer);
 
       long totalAnalysisTime = System.currentTimeMillis() - analysisStartTime;
       OUTPUT.println("Total analysis time: " +  totalAnalysisTime + " ms\n\n");
+      cuddTelemetryCollector.setPhase("reporting");
 
 	    if (!options.hasSuppressReport()) {
 	  if (options.hasPrintAllConfigurations()) {
 	      // This optimizes memory when printing results for all configurations.
 	      basePrintAnalysisResults(familyReliability.getNumberOfResults(), () -> familyReliability.printAllResults(OUTPUT));
+	  } else if (options.hasSampling()) {
+	      printSampleResults(options, getTargetConfigurations(options, analyzer), familyReliability);
 	  } else {
 	      Map<Boolean, List<Collection<String>>> splitConfigs = getTargetConfigurations(options, analyzer)
 		      .collect(Collectors.partitioningBy(analyzer::isValidConfiguration));
@@ -551,8 +936,19 @@ public class CommandLineInterface {
 	  }
       }
 
+      if (options.hasAggregateQueries()) {
+          printAggregateResults(options, familyReliability);
+      }
+
+      cuddTelemetryCollector.stop();
       if (options.hasStatsEnabled()) {
-          printStats(OUTPUT, familyReliability, rdgRoot);
+          printStats(OUTPUT, analyzer, familyReliability, rdgRoot);
+      }
+      if (options.getMetricsOutputPath() != null) {
+          exportMetrics(options.getMetricsOutputPath());
+      }
+      if (options.hasAddGrowthProfile()) {
+          addGrowthProfiler.printStats(OUTPUT);
       }
 
 
@@ -564,13 +960,71 @@ public class CommandLineInterface {
 	    directory.mkdir();
 
 	for(String i : analysis.keySet()){
-	    analyzer.getJadd().dumpADD(i, analysis.get(i), persistedAnalysesPath + i + ".add");
+	    dumpAnalysis(analyzer.getJadd(), i, analysis.get(i), persistedAnalysesPath + i + ".add");
 	}
 
 	analyzer.getJadd().writeVariableStore("variableStore.add");
 	analyzer.getJadd().writeVariableOrder("variableorder.add");
     }
 
+    /**
+     * Persists the feature model's ADD along with its clauses, so that the
+     * next evolution only has to conjoin the clauses added by then.
+     */
+    private static void persistFeatureModel(Options options, Analyzer analyzer) {
+	File featureModelFile = new File(options.getFeatureModelFilePath());
+	FeatureModel featureTree = isFeatureTree(featureModelFile) ? readFeatureTree(featureModelFile) : null;
+	String featureModel = (featureTree != null) ? featureTree.FM2JavaCNF() : readFeatureModel(featureModelFile);
+	String persistedAnalysesPath = options.getPersistedAnalysesPath();
+	new File(persistedAnalysesPath).mkdirs();
+	try {
+	    Files.write(Paths.get(persistedAnalysesPath + FEATURE_MODEL_CLAUSES_FILE),
+			FeatureModelCompiler.getClauses(featureModel),
+			Charset.forName("UTF-8"));
+	    Path treeDigestPath = Paths.get(persistedAnalysesPath + FEATURE_TREE_DIGEST_FILE);
+	    if (featureTree != null) {
+		Files.write(treeDigestPath, FeatureTreeCompiler.getTreeDigest(featureTree).getBytes(Charset.forName("UTF-8")));
+	    } else {
+		Files.deleteIfExists(treeDigestPath);
+	    }
+	} catch (IOException e) {
+	    LOGGER.log(Level.WARNING, "Error persisting the feature model's clauses.", e);
+	    return;
+	}
+	dumpAnalysis(analyzer.getJadd(), FEATURE_MODEL_FILE, analyzer.getFeatureModel(), persistedAnalysesPath + FEATURE_MODEL_FILE);
+    }
+
+    private static void dumpAnalysis(JADD jadd, String function, ADD add, String fileName) {
+	PersistenceEvent event = new PersistenceEvent();
+	event.begin();
+	jadd.dumpADD(function, add, fileName);
+	event.end();
+	if (event.shouldCommit()) {
+	    event.operation = PersistenceEvent.DUMP;
+	    event.function = function;
+	    event.file = fileName;
+	    event.addSize = add.getNodeCount();
+	    event.commit();
+	}
+    }
+
+    /**
+     * Makes the analyzer persist the ADD of each RDG node and then free it as
+     * soon as no other node needs it. Such ADDs are no longer in the analysis
+     * by the time it is persisted, so they are not dumped twice.
+     */
+    private static void setUpIntermediateAddSpilling(Options options, Analyzer analyzer) {
+	if (options.hasSpillIntermediateAdds()) {
+	    String persistedAnalysesPath = options.getPersistedAnalysesPath();
+	    new File(persistedAnalysesPath).mkdirs();
+	    JADD jadd = analyzer.getJadd();
+	    analyzer.setIntermediateAddReleaser((function, add) -> {
+	        dumpAnalysis(jadd, function, add, persistedAnalysesPath + function + ".add");
+	        add.release();
+	    });
+	}
+    }
+
     private static String getFragmentId(int numberOfEvolutions){
       if(numberOfEvolutions == 0)
 	  return "";
@@ -587,10 +1041,26 @@ public class CommandLineInterface {
       for(File file : previousADDs) {
           String fileName = file.getName();
           System.out.println("Retrieved previous result: " + fileName);
-          ADD retrievedResult = jadd.readADDpreviousAnalysis(directoryName + fileName);
-          previousAnalysis.put(fileName.substring(0, fileName.length() - 4), retrievedResult);
+          String function = fileName.substring(0, fileName.length() - 4);
+          ADD retrievedResult = loadAnalysis(jadd, function, directoryName + fileName);
+          previousAnalysis.put(function, retrievedResult);
       }
 
       return previousAnalysis;
   }
+
+    private static ADD loadAnalysis(JADD jadd, String function, String fileName) {
+	PersistenceEvent event = new PersistenceEvent();
+	event.begin();
+	ADD retrievedResult = jadd.readADDpreviousAnalysis(fileName);
+	event.end();
+	if (event.shouldCommit()) {
+	    event.operation = PersistenceEvent.LOAD;
+	    event.function = function;
+	    event.file = fileName;
+	    event.addSize = retrievedResult.getNodeCount();
+	    event.commit();
+	}
+	return retrievedResult;
+    }
 }
@@ -3,12 +3,19 @@ package ui;
 import java.io.File;
 import java.io.IOException;
 
+import expressionsolver.FeatureModelCompiler;
+import expressionsolver.FeatureModelCompiler.ConjunctionStrategy;
+import jadd.ManagerConfig;
+import jadd.ReorderingPolicy;
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
 import joptsimple.OptionSpec;
 import tool.PruningStrategy;
+import tool.VariableOrdering;
 import tool.analyzers.AnalysisStrategy;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.PresenceConditionEquivalence;
+import ui.stats.CuddTelemetryCollector;
 
 
 /**
@@ -20,23 +27,48 @@ class Options {
     private String featureModelFilePath;
     private String umlModelsFilePath;
     private String persistedAnalysesPath;
+    private boolean spillIntermediateAdds;
     private String paramPath;
     private String configuration;
     private String configurationsFilePath;
     private boolean printAllConfigurations;
     private boolean suppressReport;
     private boolean statsEnabled;
+    private String metricsOutputPath;
+    private long cuddSamplingInterval;
+    private int addGrowthProfileSize;
+    private String addGrowthDumpsPath;
     private ConcurrencyStrategy concurrencyStrategy;
+    private int modelCheckerWorkers;
+    private long modelCheckerTimeout;
     private PruningStrategy pruningStrategy;
     private AnalysisStrategy analysisStrategy;
+    private ReorderingPolicy reorderingPolicy;
+    private boolean cuddAutoTuningEnabled;
+    private ManagerConfig cuddManagerOverrides;
+    private VariableOrdering variableOrdering;
+    private ConjunctionStrategy fmConjunctionStrategy;
+    private PresenceConditionEquivalence pcEquivalence;
+    private boolean modelReductionDisabled;
+    private boolean printBest;
+    private boolean printWorst;
+    private int topK;
+    private Double reliabilityThreshold;
+    private boolean printMean;
+    private long sampleSize;
+    private long seed;
 
     static Options parseOptions(String[] args) throws IOException {
         OptionParser optionParser = new OptionParser();
         OptionSpec<String> featureModelOption = optionParser
-                .accepts("feature-model")
+                .accepts("feature-model",
+                         "Feature model, either as a CNF formula using Java logical operators or, for .xml files, as an SXFM feature tree")
                 .withRequiredArg()
                 .defaultsTo("BSN/fmBSN0.txt")
                 .describedAs("File");
+        OptionSpec<Void> spillIntermediateAddsOption = optionParser
+                .accepts("spill-intermediate-adds",
+                         "Persist the ADD of each RDG node and free it as soon as all nodes which depend on it have been evaluated, instead of keeping every ADD in memory until the end of the analysis (feature-family-based strategy only)");
         OptionSpec<String> umlModelsOption = optionParser
                 .accepts("uml-models")
                 .withRequiredArg()
@@ -66,12 +98,70 @@ class Options {
         OptionSpec<Void> allConfigurationsOption = optionParser
                 .accepts("all-configurations",
                          "Print the reliabilities of all valid configurations");
+        OptionSpec<Long> sampleOption = optionParser
+                .accepts("sample",
+                         "Evaluate the given number of valid configurations drawn uniformly at random (with replacement) instead of the configurations file")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .describedAs("Number");
+        OptionSpec<Long> seedOption = optionParser
+                .accepts("seed",
+                         "Seed for sampling configurations (a time-based one is used and reported if omitted)")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .describedAs("Number");
         OptionSpec<Void> suppressReportOption = optionParser
                 .accepts("suppress-report",
                          "Suppress reliabilities report for all evaluated configurations");
         OptionSpec<Void> statsEnabledOption = optionParser
                 .accepts("stats",
                          "Print profiling stats");
+        OptionSpec<String> metricsOutputOption = optionParser
+                .accepts("metrics-output",
+                         "Write per-node metrics (model-checking, lift and derivation times, formula and ADD sizes, reuse) to the given file, as CSV if its name ends with .csv or as JSON otherwise")
+                .withRequiredArg()
+                .describedAs("Path");
+        OptionSpec<Long> cuddSamplingIntervalOption = optionParser
+                .accepts("cudd-sampling-interval",
+                         "Time between samples of CUDD memory and table statistics, reported with --stats (in milliseconds)")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(CuddTelemetryCollector.DEFAULT_SAMPLING_INTERVAL)
+                .describedAs("Milliseconds");
+        OptionSpec<Integer> addGrowthProfileOption = optionParser
+                .accepts("add-growth-profile",
+                         "Profile the size of ADDs throughout the feature-family-based analysis, reporting the given number of RDG nodes and operations with the highest growth factors")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .describedAs("Number");
+        OptionSpec<String> addGrowthDumpsOption = optionParser
+                .accepts("add-growth-dumps",
+                         "Directory where to dump the ADDs involved in the operations reported by --add-growth-profile (as .dot files)")
+                .withRequiredArg()
+                .defaultsTo("add-growth")
+                .describedAs("Path");
+
+        OptionSpec<Void> bestOption = optionParser
+                .accepts("best",
+                         "Print the valid configuration with the highest reliability (family-based strategies only)");
+        OptionSpec<Void> worstOption = optionParser
+                .accepts("worst",
+                         "Print the valid configuration with the lowest reliability (family-based strategies only)");
+        OptionSpec<Integer> topKOption = optionParser
+                .accepts("top-k",
+                         "Print the given number of valid configurations with the highest reliabilities (family-based strategies only)")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .describedAs("Number");
+        OptionSpec<Double> belowThresholdOption = optionParser
+                .accepts("below-threshold",
+                         "Print the number of valid configurations whose reliability is below the given value (family-based strategies only)")
+                .withRequiredArg()
+                .ofType(Double.class)
+                .describedAs("Reliability");
+        OptionSpec<Void> meanOption = optionParser
+                .accepts("mean",
+                         "Print the mean reliability of all valid configurations (family-based strategies only)");
 
         OptionSpec<ConcurrencyStrategy> concurrencyStrategyOption = optionParser
                 .accepts("concurrency-strategy",
@@ -80,13 +170,27 @@ class Options {
                         .ofType(ConcurrencyStrategy.class)
                         .defaultsTo(ConcurrencyStrategy.SEQUENTIAL)
                         .describedAs("PARALLEL | SEQUENTIAL");
+        OptionSpec<Integer> modelCheckerWorkersOption = optionParser
+                .accepts("model-checker-workers",
+                         "Maximum number of model-checker processes running at the same time")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(Runtime.getRuntime().availableProcessors())
+                .describedAs("Number");
+        OptionSpec<Long> modelCheckerTimeoutOption = optionParser
+                .accepts("model-checker-timeout",
+                         "Maximum time allowed for a single model-checker invocation (0 for no limit)")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(0L)
+                .describedAs("Seconds");
         OptionSpec<PruningStrategy> pruningStrategyOption = optionParser
                 .accepts("pruning-strategy",
-                         "The strategy that should be used for pruning invalid configurations. Can be one of: FM (whole feature model); NONE (no pruning)")
+                         "The strategy that should be used for pruning invalid configurations. Can be one of: FM (whole feature model); PROJECTED_FM (feature model projected onto each intermediate result); NONE (no pruning)")
                 .withRequiredArg()
                 .ofType(PruningStrategy.class)
                 .defaultsTo(PruningStrategy.FM)
-                .describedAs("FM | NONE");
+                .describedAs("FM | PROJECTED_FM | NONE");
 
         OptionSpec<AnalysisStrategy> analysisStrategyOption = optionParser
                 .accepts("analysis-strategy",
@@ -101,6 +205,109 @@ class Options {
                 .defaultsTo(AnalysisStrategy.FEATURE_FAMILY)
                 .describedAs("FEATURE_FAMILY | FEATURE_PRODUCT | FAMILY | FAMILY_PRODUCT | PRODUCT");
 
+        OptionSpec<ReorderingPolicy.Heuristic> reorderingHeuristicOption = optionParser
+                .accepts("reordering-heuristic",
+                         "The CUDD heuristic used whenever ADD variables are reordered (NONE disables reordering altogether)")
+                .withRequiredArg()
+                .ofType(ReorderingPolicy.Heuristic.class)
+                .defaultsTo(ReorderingPolicy.DEFAULT.getHeuristic())
+                .describedAs("NONE | SIFT | SYMM_SIFT | GROUP_SIFT | WINDOW2 | ... | EXACT");
+        OptionSpec<Void> dynamicReorderingOption = optionParser
+                .accepts("dynamic-reordering",
+                         "Let CUDD reorder ADD variables on its own whenever the number of nodes grows past a threshold");
+        OptionSpec<Integer> dynamicReorderingThresholdOption = optionParser
+                .accepts("dynamic-reordering-threshold",
+                         "Number of ADD nodes which triggers the first dynamic reordering (0 keeps CUDD's default)")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(0)
+                .describedAs("Nodes");
+        OptionSpec<Double> reorderingGrowthFactorOption = optionParser
+                .accepts("reordering-growth-factor",
+                         "Reorder ADD variables after an analysis step whenever live nodes grew by more than this factor since the last reordering (0 disables it)")
+                .withRequiredArg()
+                .ofType(Double.class)
+                .defaultsTo(0.0)
+                .describedAs("Factor");
+
+        OptionSpec<Void> cuddAutoTuningOption = optionParser
+                .accepts("cudd-auto-tuning",
+                         "Derive CUDD's table sizes and memory limits from the number of variables, the RDG size and the available memory, instead of using CUDD's defaults");
+        OptionSpec<Integer> cuddUniqueSlotsOption = optionParser
+                .accepts("cudd-unique-slots",
+                         "Initial number of unique table slots per variable (overrides the derived one)")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(0)
+                .describedAs("Slots");
+        OptionSpec<Integer> cuddCacheSlotsOption = optionParser
+                .accepts("cudd-cache-slots",
+                         "Initial number of computed table (cache) slots (overrides the derived one)")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(0)
+                .describedAs("Slots");
+        OptionSpec<Long> cuddMaxMemoryOption = optionParser
+                .accepts("cudd-max-memory",
+                         "Target maximum memory for CUDD, in megabytes (overrides the derived one)")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(0L)
+                .describedAs("MB");
+        OptionSpec<Integer> cuddLooseUpToOption = optionParser
+                .accepts("cudd-loose-up-to",
+                         "Number of unique table slots up to which CUDD grows its tables instead of collecting garbage (overrides the derived one)")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(0)
+                .describedAs("Slots");
+        OptionSpec<Integer> cuddMaxCacheOption = optionParser
+                .accepts("cudd-max-cache",
+                         "Number of computed table slots beyond which the cache does not grow (overrides the derived one)")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(0)
+                .describedAs("Slots");
+
+        OptionSpec<VariableOrdering> variableOrderingOption = optionParser
+                .accepts("variable-ordering",
+                         "Initial ADD variable order, computed from the feature model and presence conditions. Can be one of: "
+                                 + "NONE (order of appearance); "
+                                 + "DFS (depth-first traversal of the feature tree); "
+                                 + "FORCE (FORCE heuristic); "
+                                 + "CLUSTERING (co-occurrence clustering).")
+                .withRequiredArg()
+                .ofType(VariableOrdering.class)
+                .defaultsTo(VariableOrdering.NONE)
+                .describedAs("NONE | DFS | FORCE | CLUSTERING");
+
+        OptionSpec<ConjunctionStrategy> fmConjunctionStrategyOption = optionParser
+                .accepts("fm-conjunction-strategy",
+                         "Order in which the feature model's clauses are conjoined when it is encoded. Can be one of: "
+                                 + "LINEAR (order of the clauses); "
+                                 + "BALANCED (balanced binary tree); "
+                                 + "SMALLEST_FIRST (two smallest ADDs first); "
+                                 + "CLUSTERED (clauses grouped by topmost variable, bottom-up).")
+                .withRequiredArg()
+                .ofType(ConjunctionStrategy.class)
+                .defaultsTo(FeatureModelCompiler.DEFAULT_STRATEGY)
+                .describedAs("LINEAR | BALANCED | SMALLEST_FIRST | CLUSTERED");
+
+        OptionSpec<PresenceConditionEquivalence> pcEquivalenceOption = optionParser
+                .accepts("pc-equivalence",
+                         "How presence conditions are grouped into variables by family-based and family-product-based analyses. Can be one of: "
+                                 + "SYNTACTIC (string equality); "
+                                 + "SEMANTIC (same boolean function); "
+                                 + "FEATURE_MODEL (same boolean function over valid configurations).")
+                .withRequiredArg()
+                .ofType(PresenceConditionEquivalence.class)
+                .defaultsTo(PresenceConditionEquivalence.SEMANTIC)
+                .describedAs("SYNTACTIC | SEMANTIC | FEATURE_MODEL");
+
+        OptionSpec<Void> noModelReductionOption = optionParser
+                .accepts("no-model-reduction",
+                         "Model check FDTMCs as they are, instead of lumping bisimilar states and compressing chains of constant transitions first");
+
         OptionSpec<Void> helpOption = optionParser
                 .accepts("help")
                 .forHelp();
@@ -115,15 +322,45 @@ class Options {
         result.featureModelFilePath = options.valueOf(featureModelOption);
         result.umlModelsFilePath = options.valueOf(umlModelsOption);
         result.persistedAnalysesPath = options.valueOf(persistedAnalysesOption);
+        result.spillIntermediateAdds = options.has(spillIntermediateAddsOption);
         result.paramPath = options.valueOf(paramPathOption);
         result.configuration = options.valueOf(configurationOption);
         result.configurationsFilePath = options.valueOf(configurationsFileOption);
         result.printAllConfigurations = options.has(allConfigurationsOption);
+        result.sampleSize = options.has(sampleOption) ? options.valueOf(sampleOption) : 0;
+        // The seed is fixed here, so that every request for target
+        // configurations yields the very same sample.
+        result.seed = options.has(seedOption) ? options.valueOf(seedOption) : System.currentTimeMillis();
         result.suppressReport = options.has(suppressReportOption);
         result.statsEnabled = options.has(statsEnabledOption);
+        result.metricsOutputPath = options.valueOf(metricsOutputOption);
+        result.cuddSamplingInterval = options.valueOf(cuddSamplingIntervalOption);
+        result.addGrowthProfileSize = options.has(addGrowthProfileOption) ? options.valueOf(addGrowthProfileOption) : 0;
+        result.addGrowthDumpsPath = options.valueOf(addGrowthDumpsOption);
         result.concurrencyStrategy = options.valueOf(concurrencyStrategyOption);
+        result.modelCheckerWorkers = options.valueOf(modelCheckerWorkersOption);
+        result.modelCheckerTimeout = options.valueOf(modelCheckerTimeoutOption);
         result.pruningStrategy = options.valueOf(pruningStrategyOption);
         result.analysisStrategy = options.valueOf(analysisStrategyOption);
+        result.reorderingPolicy = new ReorderingPolicy(options.valueOf(reorderingHeuristicOption),
+                                                       options.has(dynamicReorderingOption),
+                                                       options.valueOf(dynamicReorderingThresholdOption),
+                                                       options.valueOf(reorderingGrowthFactorOption));
+        result.cuddAutoTuningEnabled = options.has(cuddAutoTuningOption);
+        result.cuddManagerOverrides = new ManagerConfig(options.valueOf(cuddUniqueSlotsOption),
+                                                        options.valueOf(cuddCacheSlotsOption),
+                                                        options.valueOf(cuddMaxMemoryOption) * 1024 * 1024,
+                                                        options.valueOf(cuddLooseUpToOption),
+                                                        options.valueOf(cuddMaxCacheOption));
+        result.variableOrdering = options.valueOf(variableOrderingOption);
+        result.fmConjunctionStrategy = options.valueOf(fmConjunctionStrategyOption);
+        result.pcEquivalence = options.valueOf(pcEquivalenceOption);
+        result.modelReductionDisabled = options.has(noModelReductionOption);
+        result.printBest = options.has(bestOption);
+        result.printWorst = options.has(worstOption);
+        result.topK = options.has(topKOption) ? options.valueOf(topKOption) : 0;
+        result.reliabilityThreshold = options.valueOf(belowThresholdOption);
+        result.printMean = options.has(meanOption);
 
         return result;
     }
@@ -151,14 +388,84 @@ class Options {
         return statsEnabled;
     }
 
+    /**
+     * @return the path of the file to export metrics to, or null if none.
+     */
+    public String getMetricsOutputPath() {
+        return metricsOutputPath;
+    }
+
+    public long getCuddSamplingInterval() {
+        return cuddSamplingInterval;
+    }
+
+    public boolean hasAddGrowthProfile() {
+        return addGrowthProfileSize > 0;
+    }
+
+    /**
+     * @return the number of top offending nodes and operations to report.
+     */
+    public int getAddGrowthProfileSize() {
+        return addGrowthProfileSize;
+    }
+
+    public String getAddGrowthDumpsPath() {
+        return addGrowthDumpsPath;
+    }
+
+    public boolean hasSpillIntermediateAdds() {
+        return spillIntermediateAdds;
+    }
+
     public boolean hasPrintAllConfigurations() {
         return printAllConfigurations;
     }
 
+    public boolean hasSampling() {
+        return sampleSize > 0;
+    }
+
+    public long getSampleSize() {
+        return sampleSize;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
     public boolean hasSuppressReport() {
         return suppressReport;
     }
 
+    public boolean hasPrintBest() {
+        return printBest;
+    }
+
+    public boolean hasPrintWorst() {
+        return printWorst;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * @return the threshold for counting low-reliability configurations,
+     *      or null if no count was requested.
+     */
+    public Double getReliabilityThreshold() {
+        return reliabilityThreshold;
+    }
+
+    public boolean hasPrintMean() {
+        return printMean;
+    }
+
+    public boolean hasAggregateQueries() {
+        return printBest || printWorst || topK > 0 || reliabilityThreshold != null || printMean;
+    }
+
     public String getConfiguration() {
         return configuration;
     }
@@ -171,6 +478,14 @@ class Options {
         return concurrencyStrategy;
     }
 
+    public int getModelCheckerWorkers() {
+        return modelCheckerWorkers;
+    }
+
+    public long getModelCheckerTimeout() {
+        return modelCheckerTimeout;
+    }
+
     public PruningStrategy getPruningStrategy() {
         return pruningStrategy;
     }
@@ -179,6 +494,37 @@ class Options {
         return analysisStrategy;
     }
 
+    public ReorderingPolicy getReorderingPolicy() {
+        return reorderingPolicy;
+    }
+
+    public VariableOrdering getVariableOrdering() {
+        return variableOrdering;
+    }
+
+    public ConjunctionStrategy getFeatureModelConjunctionStrategy() {
+        return fmConjunctionStrategy;
+    }
+
+    public PresenceConditionEquivalence getPresenceConditionEquivalence() {
+        return pcEquivalence;
+    }
+
+    public boolean isCuddAutoTuningEnabled() {
+        return cuddAutoTuningEnabled;
+    }
+
+    /**
+     * @return the CUDD manager parameters set explicitly (the others being 0).
+     */
+    public ManagerConfig getCuddManagerOverrides() {
+        return cuddManagerOverrides;
+    }
+
+    public boolean isModelReductionDisabled() {
+        return modelReductionDisabled;
+    }
+
     public void setFeatureModel(String featureModel){
         this.featureModelFilePath = featureModel;
     }
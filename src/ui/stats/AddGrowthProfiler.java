@@ -0,0 +1,207 @@
+package ui.stats;
+
+import jadd.ADD;
+import jadd.JADD;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import tool.stats.IAddGrowthProfiler;
+
+/**
+ * Ranks RDG nodes and ADD operations by growth factor, i.e., by the ratio
+ * between the size (number of nodes) of the resulting ADD and that of its
+ * largest operand.
+ *
+ * Only the ADDs involved in the top offending operations are kept, so that
+ * they can be dumped as DOT files along with a report of their support
+ * variables (in the current variable order) when stats are printed.
+ */
+public class AddGrowthProfiler implements IAddGrowthProfiler {
+
+    private static final Comparator<Operation> BY_GROWTH = Comparator.comparingDouble(Operation::getGrowth)
+            .thenComparingInt(op -> op.outputSize);
+
+    private static class Operation {
+        final String node;
+        final String operation;
+        final int inputSize;
+        final int outputSize;
+        final long elapsedNanos;
+        // Only set for top offenders.
+        ADD largestOperand;
+        ADD result;
+        Set<String> operandsSupport;
+
+        Operation(String node, String operation, int inputSize, int outputSize, long elapsedNanos) {
+            this.node = node;
+            this.operation = operation;
+            this.inputSize = inputSize;
+            this.outputSize = outputSize;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        double getGrowth() {
+            return outputSize / (double) Math.max(inputSize, 1);
+        }
+    }
+
+    /**
+     * Growth throughout the derivation of a node, from its largest external
+     * operand (e.g., the value of a dependency or a presence condition) to
+     * the result of its last operation.
+     */
+    private static class NodeGrowth {
+        final String node;
+        // Operations on a node are chained, so that the result of one is
+        // an operand of the next. It is not an external operand, then.
+        ADD lastResult;
+        int operations = 0;
+        int inputSize = 0;
+        int peakSize = 0;
+        int finalSize = 0;
+        long elapsedNanos = 0;
+
+        NodeGrowth(String node) {
+            this.node = node;
+        }
+
+        double getGrowth() {
+            return finalSize / (double) Math.max(inputSize, 1);
+        }
+    }
+
+    private JADD jadd;
+    private int topOffenders;
+    private String dumpDirectory;
+
+    private long operations = 0;
+    // Min-heap, so that the mildest of the top offenders is the one evicted.
+    private PriorityQueue<Operation> topOperations = new PriorityQueue<Operation>(BY_GROWTH);
+    private Map<String, NodeGrowth> nodes = new LinkedHashMap<String, NodeGrowth>();
+
+    /**
+     * @param jadd Manager of the profiled ADDs.
+     * @param topOffenders Number of nodes and operations to report.
+     * @param dumpDirectory Directory where to dump the ADDs involved in the
+     *          top offending operations, or null for no dumps.
+     */
+    public AddGrowthProfiler(JADD jadd, int topOffenders, String dumpDirectory) {
+        this.jadd = jadd;
+        this.topOffenders = topOffenders;
+        this.dumpDirectory = dumpDirectory;
+    }
+
+    @Override
+    public synchronized void recordOperation(String node, String operation, Collection<ADD> operands, ADD result, long elapsedNanos) {
+        NodeGrowth growth = nodes.computeIfAbsent(node, NodeGrowth::new);
+        ADD largestOperand = null;
+        int inputSize = 0;
+        for (ADD operand : operands) {
+            int size = operand.getNodeCount();
+            if (largestOperand == null || size > inputSize) {
+                largestOperand = operand;
+                inputSize = size;
+            }
+            if (operand != growth.lastResult) {
+                growth.inputSize = Math.max(growth.inputSize, size);
+            }
+        }
+        Operation op = new Operation(node, operation, inputSize, result.getNodeCount(), elapsedNanos);
+        operations++;
+
+        growth.lastResult = result;
+        growth.operations++;
+        growth.peakSize = Math.max(growth.peakSize, op.outputSize);
+        growth.finalSize = op.outputSize;
+        growth.elapsedNanos += elapsedNanos;
+
+        if (topOperations.size() < topOffenders || BY_GROWTH.compare(op, topOperations.peek()) > 0) {
+            // Copies hold references of their own, so that they survive
+            // the release of intermediate ADDs by the analysis.
+            op.largestOperand = (largestOperand != null) ? largestOperand.copy() : null;
+            op.result = result.copy();
+            op.operandsSupport = new HashSet<String>();
+            for (ADD operand : operands) {
+                op.operandsSupport.addAll(operand.getVariables());
+            }
+            topOperations.add(op);
+            if (topOperations.size() > topOffenders) {
+                Operation evicted = topOperations.poll();
+                if (evicted.largestOperand != null) {
+                    evicted.largestOperand.release();
+                }
+                evicted.result.release();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void printStats(PrintStream out) {
+        out.println("ADD growth profile (" + operations + " operations on " + nodes.size() + " nodes):");
+
+        out.println("Top nodes by growth factor (final result / largest external operand):");
+        nodes.values().stream()
+            .sorted(Comparator.comparingDouble(NodeGrowth::getGrowth).reversed())
+            .limit(topOffenders)
+            .forEach(node -> out.println("    " + node.node + ": "
+                                         + node.inputSize + " -> " + node.finalSize + " nodes"
+                                         + " (x" + String.format("%.2f", node.getGrowth()) + ")"
+                                         + " | peak size " + node.peakSize
+                                         + " | " + node.operations + " operations"
+                                         + " | " + node.elapsedNanos/1E+6 + " ms"));
+
+        out.println("Top operations by growth factor:");
+        List<Operation> worst = new ArrayList<Operation>(topOperations);
+        worst.sort(BY_GROWTH.reversed());
+        List<String> variableOrder = jadd.getVariableOrder();
+        for (Operation op : worst) {
+            out.println("    " + op.node + " " + op.operation + ": "
+                        + op.inputSize + " -> " + op.outputSize + " nodes"
+                        + " (x" + String.format("%.2f", op.getGrowth()) + ")"
+                        + " | " + op.elapsedNanos/1E+6 + " ms");
+            Set<String> support = op.result.getVariables();
+            out.println("        support (" + support.size() + " variables): " + inOrder(support, variableOrder));
+            Set<String> introduced = new HashSet<String>(support);
+            introduced.removeAll(op.operandsSupport);
+            if (!introduced.isEmpty()) {
+                out.println("        not in operands' support: " + inOrder(introduced, variableOrder));
+            }
+            if (dumpDirectory != null) {
+                String dotFile = dump(op);
+                out.println("        dumped to " + dotFile);
+            }
+        }
+    }
+
+    private String dump(Operation op) {
+        new File(dumpDirectory).mkdirs();
+        String dotFile = new File(dumpDirectory, op.node + "-" + op.operation + ".dot").getPath();
+        if (op.largestOperand != null) {
+            jadd.dumpDot(new String[] {op.node + " " + op.operation + " (largest operand)",
+                                       op.node + " " + op.operation + " (result)"},
+                         new ADD[] {op.largestOperand, op.result},
+                         dotFile);
+        } else {
+            jadd.dumpDot(op.node + " " + op.operation + " (result)", op.result, dotFile);
+        }
+        return dotFile;
+    }
+
+    private static List<String> inOrder(Set<String> variables, List<String> variableOrder) {
+        return variableOrder.stream()
+                .filter(variables::contains)
+                .collect(Collectors.toList());
+    }
+
+}
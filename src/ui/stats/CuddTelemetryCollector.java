@@ -0,0 +1,223 @@
+package ui.stats;
+
+import jadd.JADD;
+import jadd.ManagerStats;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import tool.stats.ICuddTelemetryCollector;
+
+/**
+ * Samples a CUDD manager's native memory, unique table, computed table
+ * (cache), garbage collection and reordering counters at a fixed rate,
+ * in a background thread.
+ *
+ * Peaks are kept per analysis phase for every sample, whereas the time
+ * series is downsampled (by dropping every other sample and halving the
+ * rate) whenever it reaches {@link #MAX_SAMPLES}, so that long runs take
+ * bounded memory.
+ */
+public class CuddTelemetryCollector implements ICuddTelemetryCollector {
+
+    public static final long DEFAULT_SAMPLING_INTERVAL = 100;
+    private static final int MAX_SAMPLES = 1024;
+    private static final double MEGABYTE = 1024.0*1024.0;
+
+    private static class Sample {
+        final long time;
+        final String phase;
+        final ManagerStats stats;
+        final long heapUsed;
+
+        Sample(long time, String phase, ManagerStats stats, long heapUsed) {
+            this.time = time;
+            this.phase = phase;
+            this.stats = stats;
+            this.heapUsed = heapUsed;
+        }
+    }
+
+    private static class PhaseStats {
+        Sample first;
+        Sample last;
+        long peakMemory = 0;
+        long peakHeap = 0;
+        long peakLiveNodes = 0;
+        int peakDeadNodes = 0;
+        int peakKeys = 0;
+        int peakSlots = 0;
+
+        void add(Sample sample) {
+            if (first == null) {
+                first = sample;
+            }
+            last = sample;
+            ManagerStats stats = sample.stats;
+            peakMemory = Math.max(peakMemory, stats.getMemoryInUse());
+            peakHeap = Math.max(peakHeap, sample.heapUsed);
+            peakLiveNodes = Math.max(peakLiveNodes, stats.getLiveNodes());
+            peakDeadNodes = Math.max(peakDeadNodes, stats.getDeadNodes());
+            peakKeys = Math.max(peakKeys, stats.getUniqueTableKeys());
+            peakSlots = Math.max(peakSlots, stats.getUniqueTableSlots());
+        }
+    }
+
+    private long samplingInterval;
+    private ScheduledExecutorService sampler;
+    private JADD jadd;
+    private long startTime;
+
+    // The fields below are only accessed by the sampler thread
+    // (or after it has been stopped).
+    private String phase = "";
+    private List<Sample> samples = new ArrayList<Sample>();
+    private int stride = 1;
+    private int samplesSinceLastKept = 0;
+    private Map<String, PhaseStats> phases = new LinkedHashMap<String, PhaseStats>();
+    private Sample peak;
+
+    public CuddTelemetryCollector() {
+        this(DEFAULT_SAMPLING_INTERVAL);
+    }
+
+    /**
+     * @param samplingInterval Time between samples (ms).
+     */
+    public CuddTelemetryCollector(long samplingInterval) {
+        this.samplingInterval = samplingInterval;
+    }
+
+    @Override
+    public synchronized void start(JADD jadd) {
+        if (sampler != null) {
+            return;
+        }
+        this.jadd = jadd;
+        this.startTime = System.nanoTime();
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cudd-telemetry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> takeSample(false), 0, samplingInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void setPhase(String phase) {
+        if (sampler == null) {
+            this.phase = phase;
+        } else if (!sampler.isShutdown()) {
+            // Samples at phase boundaries make for exact per-phase deltas.
+            sampler.execute(() -> {
+                takeSample(true);
+                this.phase = phase;
+                takeSample(true);
+            });
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (sampler == null || sampler.isShutdown()) {
+            return;
+        }
+        sampler.execute(() -> takeSample(true));
+        sampler.shutdown();
+        try {
+            sampler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public synchronized void printStats(PrintStream out) {
+        if (peak == null) {
+            return;
+        }
+        out.println("CUDD telemetry (sampled every " + samplingInterval + " ms):");
+        out.println("Peak CUDD memory: " + peak.stats.getMemoryInUse()/MEGABYTE + " MB (during " + peak.phase + ")");
+        long maxMemory = peak.stats.getMaxMemory();
+        // CUDD reports an unlimited maximum as the largest unsigned value.
+        out.println("CUDD maximum memory: " + ((maxMemory > 0) ? maxMemory/MEGABYTE + " MB" : "unlimited"));
+        for (Map.Entry<String, PhaseStats> entry : phases.entrySet()) {
+            PhaseStats stats = entry.getValue();
+            ManagerStats first = stats.first.stats;
+            ManagerStats last = stats.last.stats;
+            out.println("    " + entry.getKey() + ": "
+                        + "peak CUDD memory " + stats.peakMemory/MEGABYTE + " MB"
+                        + " | peak JVM heap " + stats.peakHeap/MEGABYTE + " MB"
+                        + " | peak live nodes " + stats.peakLiveNodes
+                        + " | peak dead nodes " + stats.peakDeadNodes
+                        + " | unique table " + stats.peakKeys + " keys / " + stats.peakSlots + " slots"
+                        + " | cache hit ratio " + formatHitRatio(first, last)
+                        + " | GCs " + (last.getGarbageCollections() - first.getGarbageCollections())
+                        + " (" + (last.getGarbageCollectionTime() - first.getGarbageCollectionTime()) + " ms)"
+                        + " | reorderings " + (last.getReorderings() - first.getReorderings())
+                        + " (" + (last.getReorderingTime() - first.getReorderingTime()) + " ms)");
+        }
+        out.println("CUDD time series (ms | phase | CUDD MB | JVM heap MB | live nodes | dead nodes | unique slots | cache slots | cache hit ratio | GCs | reorderings):");
+        Sample previous = null;
+        for (Sample sample : samples) {
+            ManagerStats stats = sample.stats;
+            out.println("    " + sample.time
+                        + " | " + sample.phase
+                        + " | " + String.format("%.2f", stats.getMemoryInUse()/MEGABYTE)
+                        + " | " + String.format("%.2f", sample.heapUsed/MEGABYTE)
+                        + " | " + stats.getLiveNodes()
+                        + " | " + stats.getDeadNodes()
+                        + " | " + stats.getUniqueTableSlots()
+                        + " | " + stats.getCacheSlots()
+                        + " | " + ((previous != null) ? formatHitRatio(previous.stats, stats) : "-")
+                        + " | " + stats.getGarbageCollections()
+                        + " | " + stats.getReorderings());
+            previous = sample;
+        }
+    }
+
+    private void takeSample(boolean keep) {
+        Runtime runtime = Runtime.getRuntime();
+        Sample sample = new Sample(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime),
+                                   phase,
+                                   jadd.getManagerStats(),
+                                   runtime.totalMemory() - runtime.freeMemory());
+        phases.computeIfAbsent(phase, p -> new PhaseStats()).add(sample);
+        if (peak == null || sample.stats.getMemoryInUse() > peak.stats.getMemoryInUse()) {
+            peak = sample;
+        }
+
+        samplesSinceLastKept++;
+        if (keep || samplesSinceLastKept >= stride) {
+            samples.add(sample);
+            samplesSinceLastKept = 0;
+        }
+        if (samples.size() >= MAX_SAMPLES) {
+            List<Sample> halved = new ArrayList<Sample>();
+            for (int i = 0; i < samples.size(); i += 2) {
+                halved.add(samples.get(i));
+            }
+            samples = halved;
+            stride *= 2;
+        }
+    }
+
+    /**
+     * @return the ratio of cache hits to lookups between two samples.
+     */
+    private static String formatHitRatio(ManagerStats before, ManagerStats after) {
+        double lookUps = after.getCacheLookUps() - before.getCacheLookUps();
+        if (lookUps <= 0) {
+            return "-";
+        }
+        double hits = after.getCacheHits() - before.getCacheHits();
+        return String.format("%.1f%%", 100*hits/lookUps);
+    }
+
+}
@@ -0,0 +1,116 @@
+package ui.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values in the style of HdrHistogram:
+ * each power-of-two range is split into {@code 2^precision} linear
+ * sub-buckets, so that percentiles are reported with a relative error of
+ * at most {@code 2^-precision}, while the memory footprint is fixed
+ * (64 * 2^precision counters) regardless of the number of recorded values.
+ *
+ * Values below {@code 2^precision} are counted exactly.
+ */
+public class LogLinearHistogram {
+
+    public static final int DEFAULT_PRECISION = 5;
+
+    private final int precision;
+    private final int subBuckets;
+    private final AtomicLongArray counts;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+    private final LongAccumulator min = new LongAccumulator(Long::min, Long.MAX_VALUE);
+
+    public LogLinearHistogram() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision Number of bits of each value which are kept,
+     *          between 1 and 16.
+     */
+    public LogLinearHistogram(int precision) {
+        if (precision < 1 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 1 and 16 bits: " + precision);
+        }
+        this.precision = precision;
+        this.subBuckets = 1 << precision;
+        this.counts = new AtomicLongArray((Long.SIZE - precision + 1) * subBuckets);
+    }
+
+    public void record(long value) {
+        value = Math.max(value, 0);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+        min.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMin() {
+        return (getCount() == 0) ? 0 : min.get();
+    }
+
+    public double getMean() {
+        long n = getCount();
+        return (n == 0) ? 0 : getSum() / (double) n;
+    }
+
+    /**
+     * @param quantile a value in [0, 1].
+     * @return an upper bound of the given quantile, i.e., the upper bound of
+     *      the sub-bucket which contains it (but no more than the maximum value).
+     */
+    public long getPercentile(double quantile) {
+        long n = getCount();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max((long) Math.ceil(quantile * n), 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    private int indexOf(long value) {
+        if (value < subBuckets) {
+            return (int) value;
+        }
+        int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - precision;
+        int subBucket = (int) (value >>> shift) & (subBuckets - 1);
+        return subBuckets + shift * subBuckets + subBucket;
+    }
+
+    private long upperBoundOf(int index) {
+        if (index < subBuckets) {
+            return index;
+        }
+        int shift = index / subBuckets - 1;
+        int subBucket = index % subBuckets;
+        long lowerBound = (1L << (shift + precision)) + ((long) subBucket << shift);
+        return lowerBound + (1L << shift) - 1;
+    }
+
+}
@@ -0,0 +1,272 @@
+package ui.stats;
+
+import jadd.ADD;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import tool.stats.INodeMetrics;
+
+/**
+ * Thread-safe registry of the metrics of an analysis run: named timers,
+ * phase times and per-RDG-node metrics, along with histograms of the latter.
+ *
+ * {@link TimeCollector} and {@link ReuseCollector} are views over a registry,
+ * so that all metrics of a run can be exported to a single file.
+ */
+public class MetricsRegistry implements INodeMetrics {
+
+    private static final String IMPACTED = "impacted";
+    private static final String REUSED = "reused";
+
+    private static class NodeMetrics {
+        final String id;
+        final LongAdder modelCheckingNanos = new LongAdder();
+        final LongAdder liftNanos = new LongAdder();
+        final LongAdder derivationNanos = new LongAdder();
+        final LongAdder derivations = new LongAdder();
+        volatile int formulaSize = -1;
+        volatile int addNodes = -1;
+        volatile String reuseStatus;
+
+        NodeMetrics(String id) {
+            this.id = id;
+        }
+    }
+
+    private final Map<String, NodeMetrics> nodes = new ConcurrentHashMap<String, NodeMetrics>();
+    // Nodes in order of first appearance.
+    private final Queue<NodeMetrics> nodesInOrder = new ConcurrentLinkedQueue<NodeMetrics>();
+
+    // Timers and phases are few and coarse-grained, and a LinkedHashMap
+    // preserves insertion order while iterating.
+    private final Map<String, LongAdder> timers = new LinkedHashMap<String, LongAdder>();
+    private final Map<String, LongAdder> phases = new LinkedHashMap<String, LongAdder>();
+
+    private final LogLinearHistogram modelCheckingLatencies = new LogLinearHistogram();
+    private final LogLinearHistogram liftLatencies = new LogLinearHistogram();
+    private final LogLinearHistogram derivationLatencies = new LogLinearHistogram();
+    private final LogLinearHistogram formulaSizes = new LogLinearHistogram();
+    private final LogLinearHistogram addSizes = new LogLinearHistogram();
+
+    @Override
+    public void recordModelChecking(String node, long elapsedNanos) {
+        getNode(node).modelCheckingNanos.add(elapsedNanos);
+        modelCheckingLatencies.record(elapsedNanos);
+    }
+
+    @Override
+    public void recordFormulaSize(String node, int size) {
+        getNode(node).formulaSize = size;
+        formulaSizes.record(size);
+    }
+
+    @Override
+    public void recordLift(String node, long elapsedNanos) {
+        getNode(node).liftNanos.add(elapsedNanos);
+        liftLatencies.record(elapsedNanos);
+    }
+
+    @Override
+    public void recordDerivation(String node, long elapsedNanos, ADD derived) {
+        NodeMetrics metrics = getNode(node);
+        metrics.derivationNanos.add(elapsedNanos);
+        metrics.derivations.increment();
+        derivationLatencies.record(elapsedNanos);
+        if (derived != null) {
+            int size = derived.getNodeCount();
+            metrics.addNodes = size;
+            addSizes.record(size);
+        }
+    }
+
+    @Override
+    public void recordReuse(String node, boolean reused) {
+        getNode(node).reuseStatus = reused ? REUSED : IMPACTED;
+    }
+
+    @Override
+    public void recordPhase(String phase, long elapsedNanos) {
+        getAdder(phases, phase).add(elapsedNanos);
+    }
+
+    /**
+     * Adds {@code elapsedNanos} to the cumulative time of a named timer.
+     */
+    public void addTime(String timer, long elapsedNanos) {
+        getAdder(timers, timer).add(elapsedNanos);
+    }
+
+    public long getCumulativeTime(String timer) {
+        return getAdder(timers, timer).sum();
+    }
+
+    /**
+     * @return the cumulative time (in nanoseconds) of each timer, in order
+     *      of creation.
+     */
+    public Map<String, Long> getTimers() {
+        return sums(timers);
+    }
+
+    /**
+     * @param reused whether to return reused or impacted nodes.
+     * @return the ids of the nodes with the given reuse status, in order of
+     *      first appearance.
+     */
+    public List<String> getNodesByReuse(boolean reused) {
+        String status = reused ? REUSED : IMPACTED;
+        List<String> ids = new ArrayList<String>();
+        for (NodeMetrics metrics : nodesInOrder) {
+            if (status.equals(metrics.reuseStatus)) {
+                ids.add(metrics.id);
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public void printStats(PrintStream out) {
+        for (Map.Entry<String, Long> phase : sums(phases).entrySet()) {
+            out.println(phase.getKey() + " time: " + phase.getValue()/1E+6 + " ms");
+        }
+        out.println("Node metrics (" + nodes.size() + " nodes):");
+        printLatencies(out, "model checking", modelCheckingLatencies);
+        printLatencies(out, "lift", liftLatencies);
+        printLatencies(out, "derivation", derivationLatencies);
+        printSizes(out, "formula size", formulaSizes);
+        printSizes(out, "ADD size", addSizes);
+    }
+
+    /**
+     * Writes all metrics to {@code path}, as CSV (one row per node) if the
+     * path ends with ".csv", or as JSON otherwise.
+     */
+    @Override
+    public void export(String path) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
+            if (path.toLowerCase().endsWith(".csv")) {
+                writeCsv(writer);
+            } else {
+                writeJson(writer);
+            }
+        }
+    }
+
+    private void writeCsv(PrintWriter writer) {
+        writer.println("node,model_checking_ms,formula_size,lift_ms,derivation_ms,derivations,add_nodes,reuse");
+        for (NodeMetrics metrics : nodesInOrder) {
+            writer.println(metrics.id + ","
+                    + toMillis(metrics.modelCheckingNanos.sum()) + ","
+                    + metrics.formulaSize + ","
+                    + toMillis(metrics.liftNanos.sum()) + ","
+                    + toMillis(metrics.derivationNanos.sum()) + ","
+                    + metrics.derivations.sum() + ","
+                    + metrics.addNodes + ","
+                    + ((metrics.reuseStatus != null) ? metrics.reuseStatus : ""));
+        }
+    }
+
+    private void writeJson(PrintWriter writer) {
+        writer.println("{");
+        writer.println("  \"timers_ms\": " + toJson(sums(timers)) + ",");
+        writer.println("  \"phases_ms\": " + toJson(sums(phases)) + ",");
+        writer.println("  \"histograms\": {");
+        writer.println("    \"model_checking_ms\": " + toJson(modelCheckingLatencies, true) + ",");
+        writer.println("    \"lift_ms\": " + toJson(liftLatencies, true) + ",");
+        writer.println("    \"derivation_ms\": " + toJson(derivationLatencies, true) + ",");
+        writer.println("    \"formula_size\": " + toJson(formulaSizes, false) + ",");
+        writer.println("    \"add_nodes\": " + toJson(addSizes, false));
+        writer.println("  },");
+        writer.println("  \"nodes\": [");
+        List<String> rows = new ArrayList<String>();
+        for (NodeMetrics metrics : nodesInOrder) {
+            rows.add("    {\"id\": \"" + metrics.id + "\""
+                    + ", \"model_checking_ms\": " + toMillis(metrics.modelCheckingNanos.sum())
+                    + ", \"formula_size\": " + metrics.formulaSize
+                    + ", \"lift_ms\": " + toMillis(metrics.liftNanos.sum())
+                    + ", \"derivation_ms\": " + toMillis(metrics.derivationNanos.sum())
+                    + ", \"derivations\": " + metrics.derivations.sum()
+                    + ", \"add_nodes\": " + metrics.addNodes
+                    + ", \"reuse\": " + ((metrics.reuseStatus != null) ? "\"" + metrics.reuseStatus + "\"" : "null")
+                    + "}");
+        }
+        writer.println(String.join(",\n", rows));
+        writer.println("  ]");
+        writer.println("}");
+    }
+
+    private NodeMetrics getNode(String id) {
+        return nodes.computeIfAbsent(id, key -> {
+            NodeMetrics metrics = new NodeMetrics(key);
+            nodesInOrder.add(metrics);
+            return metrics;
+        });
+    }
+
+    private static LongAdder getAdder(Map<String, LongAdder> adders, String name) {
+        synchronized (adders) {
+            return adders.computeIfAbsent(name, key -> new LongAdder());
+        }
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> adders) {
+        Map<String, Long> sums = new LinkedHashMap<String, Long>();
+        synchronized (adders) {
+            for (Map.Entry<String, LongAdder> entry : adders.entrySet()) {
+                sums.put(entry.getKey(), entry.getValue().sum());
+            }
+        }
+        return sums;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos/1E+6;
+    }
+
+    private static void printLatencies(PrintStream out, String name, LogLinearHistogram histogram) {
+        out.println("    " + name + ": " + histogram.getCount() + " samples"
+                    + " | mean " + toMillis((long) histogram.getMean()) + " ms"
+                    + " | p50 " + toMillis(histogram.getPercentile(0.5)) + " ms"
+                    + " | p99 " + toMillis(histogram.getPercentile(0.99)) + " ms"
+                    + " | max " + toMillis(histogram.getMax()) + " ms");
+    }
+
+    private static void printSizes(PrintStream out, String name, LogLinearHistogram histogram) {
+        out.println("    " + name + ": " + histogram.getCount() + " samples"
+                    + " | mean " + histogram.getMean()
+                    + " | p50 " + histogram.getPercentile(0.5)
+                    + " | p99 " + histogram.getPercentile(0.99)
+                    + " | max " + histogram.getMax());
+    }
+
+    private static String toJson(Map<String, Long> nanosByName) {
+        List<String> entries = new ArrayList<String>();
+        for (Map.Entry<String, Long> entry : nanosByName.entrySet()) {
+            entries.add("\"" + entry.getKey() + "\": " + toMillis(entry.getValue()));
+        }
+        return "{" + String.join(", ", entries) + "}";
+    }
+
+    private static String toJson(LogLinearHistogram histogram, boolean nanos) {
+        double scale = nanos ? 1E+6 : 1;
+        return "{\"count\": " + histogram.getCount()
+                + ", \"mean\": " + histogram.getMean()/scale
+                + ", \"p50\": " + histogram.getPercentile(0.5)/scale
+                + ", \"p90\": " + histogram.getPercentile(0.9)/scale
+                + ", \"p99\": " + histogram.getPercentile(0.99)/scale
+                + ", \"max\": " + histogram.getMax()/scale
+                + "}";
+    }
+
+}
@@ -2,19 +2,103 @@ package ui.stats;
 
 import java.io.PrintStream;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 
 import paramwrapper.IModelCollector;
 
+/**
+ * Collects the sizes of the checked models, along with model checking
+ * latencies.
+ *
+ * Latencies are kept in fixed-size histograms, one per model checker
+ * backend and model size class (powers of two of the number of states and
+ * of parameters), so that collecting them is cheap and takes bounded memory
+ * however many models are checked.
+ */
 public class ModelCollector implements IModelCollector {
     private class Model {
         int variables;
         int states;
     }
 
+    /**
+     * Model checker backend and model size class.
+     */
+    private static class LatencyClass {
+        final String backend;
+        final int statesBucket;
+        final int variablesBucket;
+
+        LatencyClass(String backend, int statesBucket, int variablesBucket) {
+            this.backend = backend;
+            this.statesBucket = statesBucket;
+            this.variablesBucket = variablesBucket;
+        }
+    }
+
+    private static final Comparator<LatencyClass> BY_BACKEND_AND_SIZE = Comparator.comparing((LatencyClass c) -> c.backend)
+            .thenComparingInt(c -> c.statesBucket)
+            .thenComparingInt(c -> c.variablesBucket);
+
+    /**
+     * Running sums for the (Pearson) correlation between latency and
+     * model size.
+     */
+    private static class Correlation {
+        final LongAdder n = new LongAdder();
+        final DoubleAdder latency = new DoubleAdder();
+        final DoubleAdder latencySquared = new DoubleAdder();
+        final DoubleAdder states = new DoubleAdder();
+        final DoubleAdder statesSquared = new DoubleAdder();
+        final DoubleAdder latencyTimesStates = new DoubleAdder();
+        final DoubleAdder variables = new DoubleAdder();
+        final DoubleAdder variablesSquared = new DoubleAdder();
+        final DoubleAdder latencyTimesVariables = new DoubleAdder();
+
+        void add(double latencyMillis, int numStates, int numVariables) {
+            n.increment();
+            latency.add(latencyMillis);
+            latencySquared.add(latencyMillis*latencyMillis);
+            states.add(numStates);
+            statesSquared.add((double) numStates*numStates);
+            latencyTimesStates.add(latencyMillis*numStates);
+            variables.add(numVariables);
+            variablesSquared.add((double) numVariables*numVariables);
+            latencyTimesVariables.add(latencyMillis*numVariables);
+        }
+
+        double withStates() {
+            return pearson(n.sum(), latency.sum(), latencySquared.sum(), states.sum(), statesSquared.sum(), latencyTimesStates.sum());
+        }
+
+        double withVariables() {
+            return pearson(n.sum(), latency.sum(), latencySquared.sum(), variables.sum(), variablesSquared.sum(), latencyTimesVariables.sum());
+        }
+
+        private static double pearson(long n, double x, double xx, double y, double yy, double xy) {
+            double covariance = n*xy - x*y;
+            double variance = (n*xx - x*x) * (n*yy - y*y);
+            return (variance > 0) ? covariance / Math.sqrt(variance) : Double.NaN;
+        }
+    }
+
     private List<Model> models = Collections.synchronizedList(new LinkedList<Model>());
-    private List<Double> times = Collections.synchronizedList(new LinkedList<Double>());
+    private ConcurrentMap<LatencyClass, LogLinearHistogram> latencies = new ConcurrentSkipListMap<LatencyClass, LogLinearHistogram>(BY_BACKEND_AND_SIZE);
+    private ConcurrentMap<String, LogLinearHistogram> latenciesByBackend = new ConcurrentSkipListMap<String, LogLinearHistogram>();
+    private ConcurrentMap<String, Correlation> correlations = new ConcurrentSkipListMap<String, Correlation>();
+    // Reductions of RDG nodes' models (by node id), which are as many as
+    // the nodes, and running totals over all reduced models.
+    private ConcurrentMap<String, String> nodeReductions = new ConcurrentSkipListMap<String, String>();
+    private LongAdder reducedModels = new LongAdder();
+    private LongAdder originalStatesSum = new LongAdder();
+    private LongAdder reducedStatesSum = new LongAdder();
 
     @Override
     public void collectModel(int variables, int states) {
@@ -25,8 +109,21 @@ public class ModelCollector implements IModelCollector {
     }
 
     @Override
-    public void collectModelCheckingTime(long elapsedTimeNanos) {
-        times.add(elapsedTimeNanos/1E+6);
+    public void collectModelCheckingTime(String backend, int variables, int states, long elapsedTimeNanos) {
+        LatencyClass latencyClass = new LatencyClass(backend, sizeBucket(states), sizeBucket(variables));
+        latencies.computeIfAbsent(latencyClass, c -> new LogLinearHistogram()).record(elapsedTimeNanos);
+        latenciesByBackend.computeIfAbsent(backend, b -> new LogLinearHistogram()).record(elapsedTimeNanos);
+        correlations.computeIfAbsent(backend, b -> new Correlation()).add(elapsedTimeNanos/1E+6, states, variables);
+    }
+
+    @Override
+    public void collectModelReduction(String nodeId, int originalStates, int reducedStates) {
+        if (nodeId != null) {
+            nodeReductions.put(nodeId, originalStates + " -> " + reducedStates + " states");
+        }
+        reducedModels.increment();
+        originalStatesSum.add(originalStates);
+        reducedStatesSum.add(reducedStates);
     }
 
     @Override
@@ -62,9 +159,59 @@ public class ModelCollector implements IModelCollector {
         out.println("Sum of models' states: " + statesSum);
         out.println("Number of models: " + count);
 
-        synchronized (times) {
-            out.println("All model checking times (ms): " + times);
+        if (reducedModels.sum() > 0) {
+            out.println("Models reduction:");
+            for (Map.Entry<String, String> reduction: nodeReductions.entrySet()) {
+                out.println("    " + reduction.getKey() + ": " + reduction.getValue());
+            }
+            out.println("Number of reduced models: " + reducedModels.sum());
+            out.println("Sum of models' states before reduction: " + originalStatesSum.sum());
+            out.println("Sum of models' states after reduction: " + reducedStatesSum.sum());
+        }
+
+        if (!latenciesByBackend.isEmpty()) {
+            out.println("Model checking latencies:");
+            for (Map.Entry<String, LogLinearHistogram> entry : latenciesByBackend.entrySet()) {
+                String backend = entry.getKey();
+                Correlation correlation = correlations.get(backend);
+                out.println("    " + backend + ": " + formatLatencies(entry.getValue()));
+                out.println("        correlation with states: " + String.format("%.2f", correlation.withStates())
+                            + " | with vars: " + String.format("%.2f", correlation.withVariables()));
+                for (Map.Entry<LatencyClass, LogLinearHistogram> sizeClass : latencies.entrySet()) {
+                    LatencyClass latencyClass = sizeClass.getKey();
+                    if (latencyClass.backend.equals(backend)) {
+                        out.println("        states: " + formatBucket(latencyClass.statesBucket)
+                                    + " | vars: " + formatBucket(latencyClass.variablesBucket)
+                                    + " | " + formatLatencies(sizeClass.getValue()));
+                    }
+                }
+            }
         }
     }
 
+    /**
+     * @return the index of the power of two range [2^(i-1), 2^i)
+     *      which contains {@code size}.
+     */
+    private static int sizeBucket(int size) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(size, 0));
+    }
+
+    private static String formatBucket(int bucket) {
+        if (bucket <= 1) {
+            return String.valueOf(bucket);
+        }
+        return (1 << (bucket - 1)) + "-" + ((1 << bucket) - 1);
+    }
+
+    private static String formatLatencies(LogLinearHistogram histogram) {
+        return histogram.getCount() + " invocations"
+                + " | mean " + histogram.getMean()/1E+6 + " ms"
+                + " | min " + histogram.getMin()/1E+6 + " ms"
+                + " | p50 " + histogram.getPercentile(0.5)/1E+6 + " ms"
+                + " | p90 " + histogram.getPercentile(0.9)/1E+6 + " ms"
+                + " | p99 " + histogram.getPercentile(0.99)/1E+6 + " ms"
+                + " | max " + histogram.getMax()/1E+6 + " ms";
+    }
+
 }
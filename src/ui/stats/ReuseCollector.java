@@ -1,8 +1,6 @@
 package ui.stats;
 
 import java.io.PrintStream;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 
@@ -10,34 +8,39 @@ import tool.CyclicRdgException;
 import tool.RDGNode;
 import tool.stats.IReuseCollector;
 
+/**
+ * Reuse status of RDG nodes, kept in a {@link MetricsRegistry}.
+ */
 public class ReuseCollector implements IReuseCollector {
-    private List<String> impactedNodes;
-    private List<String> reusedNodes;
-    
+    private MetricsRegistry registry;
+
     public ReuseCollector() {
-        impactedNodes = new LinkedList<String>();
-        reusedNodes = new LinkedList<String>();
+        this(new MetricsRegistry());
+    }
+
+    public ReuseCollector(MetricsRegistry registry) {
+        this.registry = registry;
     }
-    
+
     @Override
     public void logImpactedNode(String node) {
-        impactedNodes.add(node);
+        registry.recordReuse(node, false);
     }
 
     @Override
     public void logReusedNode(String node) {
-        reusedNodes.add(node);
+        registry.recordReuse(node, true);
     }
 
     @Override
     public void printStats(PrintStream out) {
         out.println("Impacted nodes:");
-        for (String node: impactedNodes) {
+        for (String node: registry.getNodesByReuse(false)) {
             out.println("\t" + node);
         }
 
         out.println("Reused nodes:");
-        for (String node: reusedNodes) {
+        for (String node: registry.getNodesByReuse(true)) {
             out.println("\t" + node);
         }
     }
@@ -1,26 +1,37 @@
 package ui.stats;
 
 import paramwrapper.IModelCollector;
+import tool.stats.ICuddTelemetryCollector;
 import tool.stats.IFormulaCollector;
 import tool.stats.IMemoryCollector;
+import tool.stats.INodeMetrics;
 import tool.stats.IReuseCollector;
 import tool.stats.ITimeCollector;
+import tool.stats.NoopCuddTelemetryCollector;
 import tool.stats.NoopFormulaCollector;
 import tool.stats.NoopMemoryCollector;
+import tool.stats.NoopNodeMetrics;
 import tool.stats.NoopReuseCollector;
 import tool.stats.NoopTimeCollector;
 
 public class StatsCollectorFactory {
 
     private boolean collectionEnabled = false;
+    /**
+     * Registry shared by the time, reuse and node metrics collectors.
+     */
+    private MetricsRegistry metricsRegistry;
 
     public StatsCollectorFactory(boolean collectionEnabled) {
         this.collectionEnabled = collectionEnabled;
+        if (collectionEnabled) {
+            this.metricsRegistry = new MetricsRegistry();
+        }
     }
 
     public ITimeCollector createTimeCollector() {
         if (collectionEnabled) {
-            return new TimeCollector();
+            return new TimeCollector(metricsRegistry);
         } else {
             return new NoopTimeCollector();
         }
@@ -52,10 +63,29 @@ public class StatsCollectorFactory {
 
     public IReuseCollector createReuseCollector() {
         if (collectionEnabled) {
-            return new ReuseCollector();
+            return new ReuseCollector(metricsRegistry);
         } else {
             return new NoopReuseCollector();
         }
     }
 
+    /**
+     * @param samplingInterval Time between samples of the CUDD manager (ms).
+     */
+    public ICuddTelemetryCollector createCuddTelemetryCollector(long samplingInterval) {
+        if (collectionEnabled) {
+            return new CuddTelemetryCollector(samplingInterval);
+        } else {
+            return new NoopCuddTelemetryCollector();
+        }
+    }
+
+    public INodeMetrics createNodeMetrics() {
+        if (collectionEnabled) {
+            return metricsRegistry;
+        } else {
+            return new NoopNodeMetrics();
+        }
+    }
+
 }
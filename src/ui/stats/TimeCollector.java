@@ -1,53 +1,50 @@
 package ui.stats;
 
 import java.io.PrintStream;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import tool.stats.ITimeCollector;
 
+/**
+ * Timers over a {@link MetricsRegistry}, which keeps their cumulative times.
+ */
 public class TimeCollector implements ITimeCollector {
 
-    private Map<String, WallClockStopWatch> timers;
+    private MetricsRegistry registry;
+    private Map<String, Long> startTimes;
 
     public TimeCollector() {
-        // A LinkedHashMap preserves insertion order while iterating.
-        timers = new LinkedHashMap<String, WallClockStopWatch>();
+        this(new MetricsRegistry());
+    }
+
+    public TimeCollector(MetricsRegistry registry) {
+        this.registry = registry;
+        startTimes = new ConcurrentHashMap<String, Long>();
     }
 
     @Override
     public void startTimer(String id) {
-        WallClockStopWatch timer = getTimer(id);
-        timer.start();
+        startTimes.put(id, System.nanoTime());
     }
 
     @Override
     public void stopTimer(String id) {
-        WallClockStopWatch timer = getTimer(id);
-        timer.stop();
+        Long startTime = startTimes.remove(id);
+        if (startTime != null) {
+            registry.addTime(id, System.nanoTime() - startTime);
+        }
     }
 
     @Override
     public long getCumulativeTime(String id) {
-        WallClockStopWatch timer = getTimer(id);
-        return timer.getCumulativeTime();
+        return registry.getCumulativeTime(id);
     }
 
     @Override
     public void printStats(PrintStream out) {
-        for (Map.Entry<String, WallClockStopWatch> entry: timers.entrySet()) {
-            WallClockStopWatch timer = entry.getValue();
-            out.println(entry.getKey() + ": " + timer.getCumulativeTime()/1E+6 + " ms");
-        }
-    }
-
-    private WallClockStopWatch getTimer(String id) {
-        if (timers.containsKey(id)) {
-            return timers.get(id);
-        } else {
-            WallClockStopWatch timer = new WallClockStopWatch();
-            timers.put(id, timer);
-            return timer;
+        for (Map.Entry<String, Long> entry: registry.getTimers().entrySet()) {
+            out.println(entry.getKey() + ": " + entry.getValue()/1E+6 + " ms");
         }
     }
 